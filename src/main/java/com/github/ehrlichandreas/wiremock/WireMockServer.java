@@ -16,17 +16,41 @@
  */
 package com.github.ehrlichandreas.wiremock;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+
 import org.apache.commons.lang3.reflect.FieldUtils;
 
 import com.github.ehrlichandreas.wiremock.core.WireMockApp;
+import com.github.ehrlichandreas.wiremock.http.InProcessDispatcher;
+import com.github.ehrlichandreas.wiremock.jetty9.JettyHttpServer;
+import com.github.ehrlichandreas.wiremock.jetty9.JettyTenantHttpServer;
+import com.github.ehrlichandreas.wiremock.jetty9.JettyTenantHttpServerFactory;
+import com.github.ehrlichandreas.wiremock.stubbing.StubMappingsSnapshot;
+import com.github.tomakehurst.wiremock.client.MappingBuilder;
 import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.common.FatalStartupException;
 import com.github.tomakehurst.wiremock.core.Options;
 import com.github.tomakehurst.wiremock.http.HttpServer;
 import com.github.tomakehurst.wiremock.http.HttpServerFactory;
 import com.github.tomakehurst.wiremock.http.StubRequestHandler;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 public class WireMockServer extends com.github.tomakehurst.wiremock.WireMockServer {
 
+    private static final ExecutorService STARTER = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("wiremock-starter-%d").setDaemon(true).build()
+    );
+
+    private HttpServer wireMockHttpServer;
+    private InProcessDispatcher inProcessDispatcher;
+    private WireMockApp routingWireMockApp;
+    private volatile int inProcessDispatchPort = -1;
+
     public WireMockServer(Options options) {
         try {
             final WireMockApp wireMockApp = new WireMockApp(options, this);
@@ -38,6 +62,11 @@ public class WireMockServer extends com.github.tomakehurst.wiremock.WireMockServ
                     stubRequestHandler
             );
             final WireMock client = new WireMock(wireMockApp);
+            this.wireMockHttpServer = httpServer;
+            this.routingWireMockApp = wireMockApp;
+            this.inProcessDispatcher = new InProcessDispatcher(stubRequestHandler, options instanceof com.github.ehrlichandreas.wiremock.core.Options
+                    ? ((com.github.ehrlichandreas.wiremock.core.Options) options).rootContext()
+                    : com.github.ehrlichandreas.wiremock.core.Options.DEFAULT_ROOT_CONTEXT);
 
             FieldUtils.writeField(this, "options", options, true);
             FieldUtils.writeField(this, "notifier", options.notifier(), true);
@@ -49,4 +78,134 @@ public class WireMockServer extends com.github.tomakehurst.wiremock.WireMockServ
             e.printStackTrace();
         }
     }
+
+    @Override
+    public void start() {
+        super.start();
+        registerInProcessDispatcher();
+    }
+
+    @Override
+    public void stop() {
+        unregisterInProcessDispatcher();
+
+        try {
+            super.stop();
+        } finally {
+            routingWireMockApp.closeProxyConnections();
+        }
+    }
+
+    /**
+     * Dispatcher serving requests through this server without a socket hop; it is also
+     * registered under the HTTP port while the server is running.
+     */
+    public InProcessDispatcher inProcessDispatcher() {
+        return inProcessDispatcher;
+    }
+
+    /**
+     * Routes every request below the given root context to the response of the given stub
+     * by a literal prefix lookup, ahead of the regular stub matching.
+     */
+    public void addProxyRoute(String rootContext, MappingBuilder mappingBuilder) {
+        routingWireMockApp.addProxyRoute(rootContext, mappingBuilder.build());
+    }
+
+    public void removeProxyRoute(String rootContext) {
+        routingWireMockApp.removeProxyRoute(rootContext);
+    }
+
+    /**
+     * Captures the current stubs in constant time; restoring the snapshot later swaps them
+     * back in just as cheaply.
+     */
+    public StubMappingsSnapshot snapshotStubMappings() {
+        return routingWireMockApp.snapshotStubMappings();
+    }
+
+    public void restoreStubMappings(StubMappingsSnapshot snapshot) {
+        routingWireMockApp.restoreStubMappings(snapshot);
+    }
+
+    /**
+     * Factory mounting further servers on this server's Jetty, each under its own root
+     * context, instead of giving them connectors and threads of their own.
+     */
+    public HttpServerFactory tenantHttpServerFactory() {
+        if (!(wireMockHttpServer instanceof JettyHttpServer)) {
+            throw new IllegalStateException("Tenants can only be mounted on a " + JettyHttpServer.class.getSimpleName());
+        }
+
+        return new JettyTenantHttpServerFactory((JettyHttpServer) wireMockHttpServer);
+    }
+
+    private void registerInProcessDispatcher() {
+        if (wireMockHttpServer instanceof JettyTenantHttpServer) {
+            // tenants share the port of their host and are routed by its contexts
+            return;
+        }
+
+        final int port = wireMockHttpServer.port();
+        InProcessDispatcher.register(port, inProcessDispatcher);
+        inProcessDispatchPort = port;
+    }
+
+    private void unregisterInProcessDispatcher() {
+        final int port = inProcessDispatchPort;
+
+        if (port >= 0) {
+            InProcessDispatcher.unregister(port, inProcessDispatcher);
+            inProcessDispatchPort = -1;
+        }
+    }
+
+    /**
+     * Port serving the admin API, which is the HTTP port unless a dedicated admin connector
+     * is configured.
+     */
+    public int adminPort() {
+        if (wireMockHttpServer instanceof JettyHttpServer) {
+            return ((JettyHttpServer) wireMockHttpServer).adminPort();
+        }
+
+        return port();
+    }
+
+    /**
+     * Starts the server without blocking the caller, so many servers can be brought up
+     * concurrently. The future yields the bound HTTP port.
+     */
+    public CompletableFuture<Integer> startAsync() {
+        return startAsync(STARTER);
+    }
+
+    public CompletableFuture<Integer> startAsync(Executor executor) {
+        final CompletableFuture<Void> started;
+
+        if (wireMockHttpServer instanceof com.github.ehrlichandreas.wiremock.http.HttpServer) {
+            started = ((com.github.ehrlichandreas.wiremock.http.HttpServer) wireMockHttpServer).startAsync(executor);
+        } else {
+            started = CompletableFuture.runAsync(new Runnable() {
+                @Override
+                public void run() {
+                    wireMockHttpServer.start();
+                }
+            }, executor);
+        }
+
+        final CompletableFuture<Integer> port = new CompletableFuture<>();
+        started.whenComplete(new BiConsumer<Void, Throwable>() {
+            @Override
+            public void accept(Void result, Throwable throwable) {
+                if (throwable == null) {
+                    registerInProcessDispatcher();
+                    port.complete(wireMockHttpServer.port());
+                } else {
+                    port.completeExceptionally(new FatalStartupException(throwable instanceof CompletionException ? throwable.getCause() : throwable));
+                }
+            }
+        });
+        return port;
+    }
 }
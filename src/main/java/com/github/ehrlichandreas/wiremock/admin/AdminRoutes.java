@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.admin;
+
+import com.github.ehrlichandreas.wiremock.admin.tasks.GetMetricTask;
+import com.github.ehrlichandreas.wiremock.admin.tasks.GetMetricsTask;
+import com.github.ehrlichandreas.wiremock.admin.tasks.ListStubMappingsSnapshotsTask;
+import com.github.ehrlichandreas.wiremock.admin.tasks.RemoveStubMappingsSnapshotTask;
+import com.github.ehrlichandreas.wiremock.admin.tasks.RestoreStubMappingsSnapshotTask;
+import com.github.ehrlichandreas.wiremock.admin.tasks.SaveStubMappingsSnapshotTask;
+import com.github.tomakehurst.wiremock.admin.AdminTask;
+import com.github.tomakehurst.wiremock.admin.Router;
+import com.github.tomakehurst.wiremock.extension.AdminApiExtension;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+
+public class AdminRoutes extends com.github.tomakehurst.wiremock.admin.AdminRoutes {
+
+    protected AdminRoutes(Iterable<AdminApiExtension> apiExtensions, AdminTask notFoundTask) {
+        super(apiExtensions, notFoundTask);
+    }
+
+    public static AdminRoutes defaultsPlus(Iterable<AdminApiExtension> apiExtensions, AdminTask notFoundTask) {
+        return new AdminRoutes(apiExtensions, notFoundTask);
+    }
+
+    @Override
+    protected void initAdditionalRoutes(Router router) {
+        router.add(RequestMethod.GET, "/metrics", GetMetricsTask.class);
+        router.add(RequestMethod.GET, "/metrics/{name}", GetMetricTask.class);
+        router.add(RequestMethod.GET, "/snapshots", ListStubMappingsSnapshotsTask.class);
+        router.add(RequestMethod.POST, "/snapshots/{name}", SaveStubMappingsSnapshotTask.class);
+        router.add(RequestMethod.POST, "/snapshots/{name}/restore", RestoreStubMappingsSnapshotTask.class);
+        router.add(RequestMethod.DELETE, "/snapshots/{name}", RemoveStubMappingsSnapshotTask.class);
+
+        super.initAdditionalRoutes(router);
+    }
+}
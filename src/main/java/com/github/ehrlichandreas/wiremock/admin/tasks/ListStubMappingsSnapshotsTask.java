@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.admin.tasks;
+
+import static com.github.tomakehurst.wiremock.http.ResponseDefinition.notFound;
+import static com.github.tomakehurst.wiremock.http.ResponseDefinition.okForJson;
+
+import com.github.ehrlichandreas.wiremock.core.WireMockApp;
+import com.github.tomakehurst.wiremock.admin.AdminTask;
+import com.github.tomakehurst.wiremock.admin.model.PathParams;
+import com.github.tomakehurst.wiremock.core.Admin;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+
+public class ListStubMappingsSnapshotsTask implements AdminTask {
+
+    @Override
+    public ResponseDefinition execute(Admin admin, Request request, PathParams pathParams) {
+        if (!(admin instanceof WireMockApp)) {
+            return notFound();
+        }
+
+        return okForJson(((WireMockApp) admin).getStubMappingsSnapshotNames());
+    }
+}
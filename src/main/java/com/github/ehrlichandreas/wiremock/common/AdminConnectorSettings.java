@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.common;
+
+public class AdminConnectorSettings {
+
+    public static final int DISABLED_PORT = -1;
+    public static final int DEFAULT_THREADS = 4;
+    public static final AdminConnectorSettings DISABLED = new AdminConnectorSettings(DISABLED_PORT, DEFAULT_THREADS);
+
+    private final int port;
+    private final int threads;
+
+    public AdminConnectorSettings(int port, int threads) {
+        this.port = port;
+        this.threads = Math.max(1, threads);
+    }
+
+    public boolean isEnabled() {
+        return port >= 0;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+}
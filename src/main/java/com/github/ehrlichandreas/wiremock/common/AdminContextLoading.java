@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.common;
+
+/**
+ * When the admin context of a server is built. Servers that are only ever called through
+ * their stubs, e.g. the sub-servers behind a proxy, never pay for the admin context when it
+ * is {@link #LAZY}.
+ */
+public enum AdminContextLoading {
+
+    /** Admin context and its static assets are set up with the server. */
+    EAGER,
+
+    /** Admin context is set up with the server, the Swagger UI and recorder assets are resolved on first access. */
+    LAZY_ASSETS,
+
+    /** Whole admin context is built on the first request below its context path. */
+    LAZY
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.common;
+
+public class AdmissionControlSettings {
+
+    public static final AdmissionControlSettings DISABLED = new AdmissionControlSettings(0, false);
+
+    private final int maxInFlight;
+    private final boolean closeConnectionOnRejection;
+
+    public AdmissionControlSettings(int maxInFlight, boolean closeConnectionOnRejection) {
+        this.maxInFlight = Math.max(0, maxInFlight);
+        this.closeConnectionOnRejection = closeConnectionOnRejection;
+    }
+
+    public boolean isEnabled() {
+        return isInFlightLimited();
+    }
+
+    public boolean isInFlightLimited() {
+        return maxInFlight > 0;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public boolean isCloseConnectionOnRejection() {
+        return closeConnectionOnRejection;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.common;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Gzipped forms of response bodies keyed by the body content, so a stub that keeps serving
+ * the same bytes is compressed once. Bodies below the minimum size or of a MIME type that
+ * is not compressed are left to the caller.
+ */
+public class CompressedBodyCache implements Supplier<Map<String, Object>> {
+
+    private static final Set<String> INCOMPRESSIBLE_MIME_TYPES = ImmutableSet.of(
+            "application/compress",
+            "application/zip",
+            "application/gzip",
+            "application/bzip2",
+            "application/x-rar-compressed"
+    );
+
+    private final GzipSettings settings;
+    private final DeflaterPool deflaterPool;
+    private final Cache<ByteBuffer, byte[]> cache;
+
+    public CompressedBodyCache(GzipSettings settings) {
+        this.settings = settings;
+        this.deflaterPool = new DeflaterPool(settings.getDeflaterPoolSize(), settings.getCompressionLevel());
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(settings.getCompressedBodyCacheMaxBytes())
+                .weigher(new Weigher<ByteBuffer, byte[]>() {
+                    @Override
+                    public int weigh(ByteBuffer key, byte[] value) {
+                        return key.capacity() + value.length;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    public boolean shouldCompress(String mimeType, int length) {
+        if (length < settings.getMinGzipSize()) {
+            return false;
+        }
+
+        if (mimeType == null) {
+            return true;
+        }
+
+        if (!settings.getMimeTypes().isEmpty()) {
+            return settings.getMimeTypes().contains(mimeType);
+        }
+
+        return !(INCOMPRESSIBLE_MIME_TYPES.contains(mimeType)
+                || mimeType.startsWith("image/")
+                || mimeType.startsWith("audio/")
+                || mimeType.startsWith("video/"));
+    }
+
+    public byte[] compress(final byte[] body) {
+        try {
+            return cache.get(ByteBuffer.wrap(body), new Callable<byte[]>() {
+                @Override
+                public byte[] call() {
+                    return deflaterPool.gzip(body);
+                }
+            });
+        } catch (ExecutionException e) {
+            return deflaterPool.gzip(body);
+        }
+    }
+
+    @Override
+    public Map<String, Object> get() {
+        final CacheStats stats = cache.stats();
+        final Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("entries", cache.size());
+        snapshot.put("hits", stats.hitCount());
+        snapshot.put("misses", stats.missCount());
+        snapshot.put("evictions", stats.evictionCount());
+        return snapshot;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.common;
+
+/**
+ * Connection and buffer tuning of the connectors. Values below zero keep the Jetty
+ * defaults, the buffer pool is replaced only when it is allowed to retain memory.
+ */
+public class ConnectorSettings {
+
+    public static final int DEFAULT = -1;
+    public static final int DEFAULT_BUFFER_POOL_BUCKET_SIZE = 4 * 1024;
+    public static final int DEFAULT_BUFFER_POOL_MAX_BUFFER_SIZE = 64 * 1024;
+    public static final ConnectorSettings DEFAULTS = new ConnectorSettings(DEFAULT, DEFAULT, DEFAULT, DEFAULT_BUFFER_POOL_BUCKET_SIZE, DEFAULT_BUFFER_POOL_MAX_BUFFER_SIZE, 0L);
+
+    private final long idleTimeoutMillis;
+    private final int outputBufferSize;
+    private final int outputAggregationSize;
+    private final int bufferPoolBucketSize;
+    private final int bufferPoolMaxBufferSize;
+    private final long bufferPoolMaxRetainedBytes;
+
+    public ConnectorSettings(
+            long idleTimeoutMillis,
+            int outputBufferSize,
+            int outputAggregationSize,
+            int bufferPoolBucketSize,
+            int bufferPoolMaxBufferSize,
+            long bufferPoolMaxRetainedBytes
+    ) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.outputBufferSize = outputBufferSize;
+        this.outputAggregationSize = outputAggregationSize;
+        this.bufferPoolBucketSize = bufferPoolBucketSize > 0 ? bufferPoolBucketSize : DEFAULT_BUFFER_POOL_BUCKET_SIZE;
+        this.bufferPoolMaxBufferSize = Math.max(this.bufferPoolBucketSize, bufferPoolMaxBufferSize);
+        this.bufferPoolMaxRetainedBytes = bufferPoolMaxRetainedBytes;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public int getOutputBufferSize() {
+        return outputBufferSize;
+    }
+
+    public int getOutputAggregationSize() {
+        return outputAggregationSize;
+    }
+
+    public int getBufferPoolBucketSize() {
+        return bufferPoolBucketSize;
+    }
+
+    public int getBufferPoolMaxBufferSize() {
+        return bufferPoolMaxBufferSize;
+    }
+
+    public long getBufferPoolMaxRetainedBytes() {
+        return bufferPoolMaxRetainedBytes;
+    }
+
+    public boolean isBufferPoolEnabled() {
+        return bufferPoolMaxRetainedBytes > 0;
+    }
+}
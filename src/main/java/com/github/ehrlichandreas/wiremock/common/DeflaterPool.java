@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.common;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Bounded pool of raw ({@code nowrap}) deflaters, so compressing a body does not allocate
+ * native zlib state every time. Deflaters returned to a full pool are ended right away.
+ */
+public class DeflaterPool {
+
+    private final int level;
+    private final BlockingQueue<Deflater> deflaters;
+
+    public DeflaterPool(int capacity, int level) {
+        this.level = level;
+        this.deflaters = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    public byte[] gzip(byte[] body) {
+        final Deflater deflater = acquire();
+
+        try {
+            return Gzip.gzip(body, deflater);
+        } finally {
+            release(deflater);
+        }
+    }
+
+    private Deflater acquire() {
+        final Deflater deflater = deflaters.poll();
+        return deflater != null ? deflater : new Deflater(level, true);
+    }
+
+    private void release(Deflater deflater) {
+        deflater.reset();
+
+        if (!deflaters.offer(deflater)) {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.common;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+public final class Gzip {
+
+    public static final String GZIP = "gzip";
+
+    private static final byte[] HEADER = new byte[] { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+
+    private Gzip() {
+    }
+
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        for (String candidate : acceptEncoding.split(",")) {
+            final String[] parts = candidate.trim().split(";");
+
+            if (GZIP.equalsIgnoreCase(parts[0].trim())) {
+                return parts.length < 2 || !parts[1].trim().matches("q\\s*=\\s*0(\\.0*)?");
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @param deflater a deflater created with {@code nowrap}, it is left finished and has to be reset by the caller
+     */
+    public static byte[] gzip(byte[] body, Deflater deflater) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, body.length / 2));
+        final byte[] buffer = new byte[Math.min(Math.max(512, body.length), 8192)];
+
+        bytes.write(HEADER, 0, HEADER.length);
+
+        deflater.setInput(body);
+        deflater.finish();
+
+        while (!deflater.finished()) {
+            final int length = deflater.deflate(buffer);
+            bytes.write(buffer, 0, length);
+        }
+
+        final CRC32 crc = new CRC32();
+        crc.update(body);
+        writeIntLE(bytes, (int) crc.getValue());
+        writeIntLE(bytes, body.length);
+
+        return bytes.toByteArray();
+    }
+
+    private static void writeIntLE(ByteArrayOutputStream bytes, int value) {
+        bytes.write(value & 0xff);
+        bytes.write((value >> 8) & 0xff);
+        bytes.write((value >> 16) & 0xff);
+        bytes.write((value >> 24) & 0xff);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.common;
+
+import java.util.Set;
+import java.util.zip.Deflater;
+
+import com.google.common.collect.ImmutableSet;
+
+public class GzipSettings {
+
+    public static final int DEFAULT_MIN_GZIP_SIZE = 256;
+    public static final int DEFAULT_COMPRESSION_LEVEL = Deflater.DEFAULT_COMPRESSION;
+    public static final int DEFAULT_DEFLATER_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+    private final int minGzipSize;
+    private final int compressionLevel;
+    private final Set<String> mimeTypes;
+    private final int deflaterPoolSize;
+    private final long compressedBodyCacheMaxBytes;
+
+    public GzipSettings(int minGzipSize, int compressionLevel, Set<String> mimeTypes, int deflaterPoolSize, long compressedBodyCacheMaxBytes) {
+        this.minGzipSize = minGzipSize;
+        this.compressionLevel = compressionLevel;
+        this.mimeTypes = ImmutableSet.copyOf(mimeTypes);
+        this.deflaterPoolSize = deflaterPoolSize;
+        this.compressedBodyCacheMaxBytes = compressedBodyCacheMaxBytes;
+    }
+
+    public int getMinGzipSize() {
+        return minGzipSize;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * @return the MIME types to compress, empty to keep the defaults of the gzip handler
+     */
+    public Set<String> getMimeTypes() {
+        return mimeTypes;
+    }
+
+    public int getDeflaterPoolSize() {
+        return deflaterPoolSize;
+    }
+
+    public long getCompressedBodyCacheMaxBytes() {
+        return compressedBodyCacheMaxBytes;
+    }
+
+    public boolean isCompressedBodyCacheEnabled() {
+        return compressedBodyCacheMaxBytes > 0;
+    }
+}
@@ -0,0 +1,427 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.common;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scheduler backed by a hashed timer wheel. Scheduling and cancelling are O(1) and only touch
+ * lock-free queues, a single thread advances the wheel tick by tick and hands expired tasks to
+ * a small worker pool. The wheel thread sleeps while nothing is scheduled, so an idle timer
+ * costs nothing.
+ */
+public class HashedWheelTimer extends AbstractExecutorService implements ScheduledExecutorService {
+
+    public static final long DEFAULT_TICK_MILLIS = 1L;
+    public static final int DEFAULT_TICKS_PER_WHEEL = 8192;
+
+    private static final int MAX_TRANSFERS_PER_TICK = 100000;
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout<?>> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout<?>> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final Object idle = new Object();
+    private final ThreadPoolExecutor workers;
+    private final Thread wheelThread;
+    private final long startTime;
+    private volatile boolean running = true;
+    private long tick;
+
+    public HashedWheelTimer(int threads) {
+        this(threads, DEFAULT_TICK_MILLIS, MILLISECONDS, DEFAULT_TICKS_PER_WHEEL);
+    }
+
+    public HashedWheelTimer(int threads, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        final int instance = INSTANCES.incrementAndGet();
+
+        this.tickNanos = Math.max(1L, unit.toNanos(tickDuration));
+        this.wheel = new Bucket[Integer.highestOneBit(Math.max(2, ticksPerWheel - 1)) << 1];
+        this.mask = wheel.length - 1;
+
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Bucket();
+        }
+
+        this.workers = new ThreadPoolExecutor(
+                Math.max(1, threads),
+                Math.max(1, threads),
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                daemonThreadFactory("wiremock-timer-" + instance + "-worker-")
+        );
+        this.startTime = System.nanoTime();
+        this.wheelThread = daemonThreadFactory("wiremock-timer-" + instance + "-wheel-").newThread(new Runnable() {
+            @Override
+            public void run() {
+                runWheel();
+            }
+        });
+        this.wheelThread.start();
+    }
+
+    public void ensureThreads(int threads) {
+        synchronized (workers) {
+            if (threads > workers.getMaximumPoolSize()) {
+                workers.setMaximumPoolSize(threads);
+                workers.setCorePoolSize(threads);
+            }
+        }
+    }
+
+    public long pendingTimeouts() {
+        return pending.get();
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return enqueue(new Timeout<Void>(Executors.<Void>callable(command, null), deadlineOf(delay, unit), 0L));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return enqueue(new Timeout<V>(callable, deadlineOf(delay, unit), 0L));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+
+        return enqueue(new Timeout<Void>(Executors.<Void>callable(command, null), deadlineOf(initialDelay, unit), unit.toNanos(period)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        if (delay <= 0) {
+            throw new IllegalArgumentException("delay must be positive");
+        }
+
+        return enqueue(new Timeout<Void>(Executors.<Void>callable(command, null), deadlineOf(initialDelay, unit), -unit.toNanos(delay)));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (!running) {
+            throw new RejectedExecutionException("Timer has been shut down");
+        }
+
+        workers.execute(command);
+    }
+
+    @Override
+    public void shutdown() {
+        running = false;
+        wheelThread.interrupt();
+        workers.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+
+        final List<Runnable> notRun = new ArrayList<>(workers.shutdownNow());
+
+        try {
+            wheelThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        Timeout<?> timeout;
+
+        while ((timeout = scheduled.poll()) != null) {
+            notRun.add(timeout);
+        }
+
+        for (Bucket bucket : wheel) {
+            bucket.drainTo(notRun);
+        }
+
+        return notRun;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return !running;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return !running && !wheelThread.isAlive() && workers.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        wheelThread.join(Math.max(1L, NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        return workers.awaitTermination(Math.max(0L, deadline - System.nanoTime()), NANOSECONDS) && !wheelThread.isAlive();
+    }
+
+    private long deadlineOf(long delay, TimeUnit unit) {
+        return System.nanoTime() - startTime + Math.max(0L, unit.toNanos(delay));
+    }
+
+    private <V> Timeout<V> enqueue(Timeout<V> timeout) {
+        if (!running) {
+            throw new RejectedExecutionException("Timer has been shut down");
+        }
+
+        scheduled.add(timeout);
+
+        if (pending.getAndIncrement() == 0) {
+            synchronized (idle) {
+                idle.notifyAll();
+            }
+        }
+
+        return timeout;
+    }
+
+    private void runWheel() {
+        while (running) {
+            try {
+                awaitWork();
+                awaitNextTick();
+
+                removeCancelled();
+                transferScheduled();
+                wheel[(int) (tick & mask)].expire();
+                tick++;
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void awaitWork() throws InterruptedException {
+        if (pending.get() > 0) {
+            return;
+        }
+
+        synchronized (idle) {
+            while (running && pending.get() == 0) {
+                idle.wait();
+            }
+        }
+
+        // the wheel is empty, so the ticks slept through can be skipped
+        tick = Math.max(tick, (System.nanoTime() - startTime) / tickNanos);
+    }
+
+    private void awaitNextTick() throws InterruptedException {
+        final long deadline = tickNanos * (tick + 1);
+        long sleepNanos;
+
+        while ((sleepNanos = deadline - (System.nanoTime() - startTime)) > 0) {
+            NANOSECONDS.sleep(sleepNanos);
+        }
+    }
+
+    private void transferScheduled() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            final Timeout<?> timeout = scheduled.poll();
+
+            if (timeout == null) {
+                return;
+            }
+
+            if (timeout.isCancelled()) {
+                pending.decrementAndGet();
+                continue;
+            }
+
+            final long calculated = timeout.deadline / tickNanos;
+            final long ticks = Math.max(calculated, tick);
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout<?> timeout;
+
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+                pending.decrementAndGet();
+            }
+        }
+    }
+
+    private void dispatch(Timeout<?> timeout) {
+        pending.decrementAndGet();
+
+        try {
+            workers.execute(timeout);
+        } catch (RejectedExecutionException e) {
+            timeout.cancel(false);
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory(final String prefix) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                final Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    private final class Bucket {
+        private Timeout<?> head;
+        private Timeout<?> tail;
+
+        void add(Timeout<?> timeout) {
+            timeout.bucket = this;
+
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire() {
+            Timeout<?> timeout = head;
+
+            while (timeout != null) {
+                final Timeout<?> next = timeout.next;
+
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    dispatch(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout<?> timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        void drainTo(List<Runnable> notRun) {
+            while (head != null) {
+                final Timeout<?> timeout = head;
+                remove(timeout);
+                notRun.add(timeout);
+            }
+        }
+    }
+
+    private final class Timeout<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+        private final long period;
+        private volatile long deadline;
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout<?> prev;
+        private Timeout<?> next;
+
+        Timeout(Callable<V> callable, long deadline, long period) {
+            super(callable);
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return period != 0;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - (System.nanoTime() - startTime), NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(NANOSECONDS), other.getDelay(NANOSECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            final boolean cancelledNow = super.cancel(mayInterruptIfRunning);
+
+            if (cancelledNow) {
+                cancelled.add(this);
+            }
+
+            return cancelledNow;
+        }
+
+        @Override
+        public void run() {
+            if (!isPeriodic()) {
+                super.run();
+            } else if (runAndReset() && running) {
+                deadline = period > 0 ? deadline + period : System.nanoTime() - startTime - period;
+                enqueue(this);
+            }
+        }
+    }
+}
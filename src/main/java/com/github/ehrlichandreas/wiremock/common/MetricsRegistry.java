@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.common;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+
+/**
+ * Named metric sources of one server. The registry is shared by reference between the
+ * {@link com.github.ehrlichandreas.wiremock.core.Options} copies handed to the HTTP server
+ * and to the app, so both sides can contribute and the admin API sees all of them.
+ */
+public class MetricsRegistry {
+
+    private final ConcurrentMap<String, Supplier<?>> sources = new ConcurrentHashMap<>();
+
+    public MetricsRegistry register(String name, Supplier<?> source) {
+        sources.put(name, source);
+        return this;
+    }
+
+    public MetricsRegistry unregister(String name) {
+        sources.remove(name);
+        return this;
+    }
+
+    public Optional<Object> snapshot(String name) {
+        final Supplier<?> source = sources.get(name);
+
+        if (source == null) {
+            return Optional.absent();
+        }
+
+        return Optional.<Object>fromNullable(source.get());
+    }
+
+    public Map<String, Object> snapshot() {
+        final Map<String, Object> snapshot = new TreeMap<>();
+
+        for (Map.Entry<String, Supplier<?>> entry : sources.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().get());
+        }
+
+        return snapshot;
+    }
+}
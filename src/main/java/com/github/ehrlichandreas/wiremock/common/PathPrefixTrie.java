@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.common;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Maps path prefixes to values by their segments, so looking up the longest prefix of a URL
+ * costs one step per path segment regardless of how many prefixes are registered. A prefix
+ * {@code /a/b} matches {@code /a/b/} and everything below it, but neither {@code /a/b} itself
+ * nor {@code /a/bc}, just like the pattern {@code /a/b/.*} would. The empty prefix matches
+ * every URL, like {@code /.*}. Lookups are lock-free.
+ */
+public class PathPrefixTrie<V> {
+
+    private final Node<V> root = new Node<>();
+    private volatile int size;
+
+    public synchronized V put(String prefix, V value) {
+        Node<V> node = root;
+
+        for (String segment : segmentsOf(prefix)) {
+            node = node.children.computeIfAbsent(segment, key -> new Node<>());
+        }
+
+        final V previous = node.value;
+        node.value = value;
+
+        if (previous == null) {
+            size++;
+        }
+
+        return previous;
+    }
+
+    public synchronized V remove(String prefix) {
+        Node<V> node = root;
+
+        for (String segment : segmentsOf(prefix)) {
+            node = node.children.get(segment);
+
+            if (node == null) {
+                return null;
+            }
+        }
+
+        final V previous = node.value;
+        node.value = null;
+
+        if (previous != null) {
+            size--;
+        }
+
+        return previous;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Value of the longest registered prefix of the given URL, ignoring its query string.
+     */
+    public V longestPrefixOf(String url) {
+        if (url == null || size == 0) {
+            return null;
+        }
+
+        final int queryStart = url.indexOf('?');
+        final int end = queryStart < 0 ? url.length() : queryStart;
+        Node<V> node = root;
+        V match = root.value;
+        int start = url.startsWith("/") ? 1 : 0;
+
+        while (start <= end) {
+            int slash = url.indexOf('/', start);
+
+            if (slash < 0 || slash > end) {
+                // the last segment can only be below a prefix, never complete one
+                break;
+            }
+
+            node = node.children.get(url.substring(start, slash));
+
+            if (node == null) {
+                break;
+            }
+
+            if (node.value != null) {
+                match = node.value;
+            }
+
+            start = slash + 1;
+        }
+
+        return match;
+    }
+
+    private static String[] segmentsOf(String prefix) {
+        final String trimmed = prefix == null ? "" : prefix.trim();
+        final String relative = trimmed.startsWith("/") ? trimmed.substring(1) : trimmed;
+        final String fixed = relative.endsWith("/") ? relative.substring(0, relative.length() - 1) : relative;
+        return fixed.isEmpty() ? new String[0] : fixed.split("/");
+    }
+
+    private static class Node<V> {
+        private final ConcurrentMap<String, Node<V>> children = new ConcurrentHashMap<>();
+        private volatile V value;
+    }
+}
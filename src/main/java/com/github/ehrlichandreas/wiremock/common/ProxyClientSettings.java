@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.common;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Connection pool of the client forwarding proxied requests. Values below zero keep the
+ * WireMock defaults: a pool of 1000 connections which a single upstream host may use up
+ * completely, keep-alive as advised by the upstream but at most 30 seconds, and five minute
+ * timeouts. Connections idle for longer than the keep-alive are evicted from the pool. A
+ * keep-alive of zero closes every upstream connection after its response. Streamed responses are piped
+ * to the client as they arrive, the journal then only keeps a prefix of their body.
+ */
+public class ProxyClientSettings {
+
+    public static final int DEFAULT = -1;
+    public static final int DEFAULT_MAX_CONNECTIONS = 1000;
+    public static final int DEFAULT_TIMEOUT_MILLIS = (int) MINUTES.toMillis(5);
+    public static final long DEFAULT_KEEP_ALIVE_MILLIS = SECONDS.toMillis(30);
+    public static final int DEFAULT_VALIDATE_AFTER_INACTIVITY_MILLIS = 2000;
+    public static final int DEFAULT_JOURNAL_BODY_LIMIT = 8 * 1024;
+    public static final ProxyClientSettings DEFAULTS = new ProxyClientSettings(DEFAULT, DEFAULT, DEFAULT, DEFAULT, DEFAULT, false, DEFAULT_JOURNAL_BODY_LIMIT);
+
+    private final int maxConnectionsPerRoute;
+    private final int maxConnectionsTotal;
+    private final long keepAliveMillis;
+    private final int connectTimeoutMillis;
+    private final int socketTimeoutMillis;
+    private final boolean streamResponses;
+    private final int journalBodyLimit;
+
+    public ProxyClientSettings(
+            int maxConnectionsPerRoute,
+            int maxConnectionsTotal,
+            long keepAliveMillis,
+            int connectTimeoutMillis,
+            int socketTimeoutMillis,
+            boolean streamResponses,
+            int journalBodyLimit
+    ) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        this.maxConnectionsTotal = maxConnectionsTotal;
+        this.keepAliveMillis = keepAliveMillis;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.socketTimeoutMillis = socketTimeoutMillis;
+        this.streamResponses = streamResponses;
+        this.journalBodyLimit = journalBodyLimit >= 0 ? journalBodyLimit : DEFAULT_JOURNAL_BODY_LIMIT;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public int getMaxConnectionsTotal() {
+        return maxConnectionsTotal;
+    }
+
+    public long getKeepAliveMillis() {
+        return keepAliveMillis;
+    }
+
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public int getSocketTimeoutMillis() {
+        return socketTimeoutMillis;
+    }
+
+    public boolean isStreamResponses() {
+        return streamResponses;
+    }
+
+    public int getJournalBodyLimit() {
+        return journalBodyLimit;
+    }
+
+    public int effectiveMaxConnectionsTotal() {
+        return maxConnectionsTotal > 0 ? maxConnectionsTotal : DEFAULT_MAX_CONNECTIONS;
+    }
+
+    public int effectiveMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute > 0 ? maxConnectionsPerRoute : effectiveMaxConnectionsTotal();
+    }
+
+    public int effectiveConnectTimeoutMillis() {
+        return connectTimeoutMillis >= 0 ? connectTimeoutMillis : DEFAULT_TIMEOUT_MILLIS;
+    }
+
+    public int effectiveSocketTimeoutMillis() {
+        return socketTimeoutMillis >= 0 ? socketTimeoutMillis : DEFAULT_TIMEOUT_MILLIS;
+    }
+
+    public boolean isKeepAliveEnabled() {
+        return keepAliveMillis != 0;
+    }
+
+    public long effectiveKeepAliveMillis() {
+        return keepAliveMillis >= 0 ? keepAliveMillis : DEFAULT_KEEP_ALIVE_MILLIS;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.common;
+
+/**
+ * Process wide {@link HashedWheelTimer} shared by all servers of the JVM. Every server that
+ * acquires it has to release it on stop, the timer is shut down with the last release.
+ */
+public final class SharedTimer {
+
+    private static HashedWheelTimer timer;
+    private static int references;
+
+    private SharedTimer() {
+    }
+
+    public static synchronized HashedWheelTimer acquire(int threads) {
+        if (timer == null) {
+            timer = new HashedWheelTimer(threads);
+        } else {
+            timer.ensureThreads(threads);
+        }
+
+        references++;
+        return timer;
+    }
+
+    public static synchronized void release() {
+        if (references == 0) {
+            return;
+        }
+
+        references--;
+
+        if (references == 0) {
+            timer.shutdown();
+            timer = null;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.common;
+
+public class StaticResourceCacheSettings {
+
+    public static final StaticResourceCacheSettings DISABLED = new StaticResourceCacheSettings(0L, 0L, false);
+
+    private final long maxBytes;
+    private final long maxFileSize;
+    private final boolean gzipEnabled;
+
+    public StaticResourceCacheSettings(long maxBytes, long maxFileSize, boolean gzipEnabled) {
+        this.maxBytes = maxBytes;
+        this.maxFileSize = maxFileSize;
+        this.gzipEnabled = gzipEnabled;
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0 && maxFileSize > 0;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public boolean isGzipEnabled() {
+        return gzipEnabled;
+    }
+}
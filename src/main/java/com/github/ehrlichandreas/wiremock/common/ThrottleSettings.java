@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.common;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+public class ThrottleSettings {
+
+    public static final ThrottleSettings NONE = new ThrottleSettings(0L, 0L, 0L);
+
+    private final long bytesPerSecond;
+    private final long firstByteDelayMillis;
+    private final long jitterMillis;
+
+    public ThrottleSettings(long bytesPerSecond, long firstByteDelayMillis, long jitterMillis) {
+        this.bytesPerSecond = Math.max(0L, bytesPerSecond);
+        this.firstByteDelayMillis = Math.max(0L, firstByteDelayMillis);
+        this.jitterMillis = Math.max(0L, jitterMillis);
+    }
+
+    public boolean isEnabled() {
+        return bytesPerSecond > 0 || firstByteDelayMillis > 0 || jitterMillis > 0;
+    }
+
+    public boolean isBandwidthLimited() {
+        return bytesPerSecond > 0;
+    }
+
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    public long getFirstByteDelayMillis() {
+        return firstByteDelayMillis;
+    }
+
+    public long getJitterMillis() {
+        return jitterMillis;
+    }
+
+    public long sampleFirstByteDelayMillis() {
+        return firstByteDelayMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0L);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.common;
+
+public class TlsSettings {
+
+    public static final int DEFAULT = -1;
+    public static final TlsSettings DEFAULTS = new TlsSettings(DEFAULT, DEFAULT, null);
+
+    private final int sessionCacheSize;
+    private final int sessionTimeoutSeconds;
+    private final String provider;
+
+    public TlsSettings(int sessionCacheSize, int sessionTimeoutSeconds, String provider) {
+        this.sessionCacheSize = sessionCacheSize;
+        this.sessionTimeoutSeconds = sessionTimeoutSeconds;
+        this.provider = provider;
+    }
+
+    public int getSessionCacheSize() {
+        return sessionCacheSize;
+    }
+
+    public int getSessionTimeoutSeconds() {
+        return sessionTimeoutSeconds;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.common;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Token bucket refilled continuously at a fixed rate. It starts full, so the first
+ * {@code capacity} tokens are available right away. Not thread safe, every throttled
+ * response owns its bucket and only one thread writes a response at a time.
+ */
+public class TokenBucket {
+
+    private final long tokensPerSecond;
+    private final long capacity;
+    private long tokens;
+    private long lastRefill;
+
+    public TokenBucket(long tokensPerSecond, long capacity) {
+        this.tokensPerSecond = Math.max(1L, tokensPerSecond);
+        this.capacity = Math.max(1L, capacity);
+        this.tokens = this.capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * @return the number of tokens taken, at most {@code requested} and zero when the bucket is empty
+     */
+    public long take(long requested) {
+        refill();
+        final long taken = Math.min(requested, tokens);
+        tokens -= taken;
+        return taken;
+    }
+
+    /**
+     * @return nanoseconds until {@code requested} tokens (capped to the capacity) are available
+     */
+    public long nanosUntilAvailable(long requested) {
+        refill();
+        final long missing = Math.min(requested, capacity) - tokens;
+        return missing <= 0 ? 0L : (missing * SECONDS.toNanos(1) + tokensPerSecond - 1) / tokensPerSecond;
+    }
+
+    private void refill() {
+        final long now = System.nanoTime();
+        final long elapsed = now - lastRefill;
+        final long refilled = elapsed * tokensPerSecond / SECONDS.toNanos(1);
+
+        if (refilled > 0) {
+            tokens = Math.min(capacity, tokens + refilled);
+            lastRefill += refilled * SECONDS.toNanos(1) / tokensPerSecond;
+        }
+
+        if (tokens == capacity) {
+            lastRefill = now;
+        }
+    }
+}
@@ -16,7 +16,28 @@
  */
 package com.github.ehrlichandreas.wiremock.core;
 
+import com.github.ehrlichandreas.wiremock.common.AdminConnectorSettings;
+import com.github.ehrlichandreas.wiremock.common.AdminContextLoading;
+import com.github.ehrlichandreas.wiremock.common.AdmissionControlSettings;
+import com.github.ehrlichandreas.wiremock.common.ConnectorSettings;
+import com.github.ehrlichandreas.wiremock.common.GzipSettings;
+import com.github.ehrlichandreas.wiremock.common.MetricsRegistry;
+import com.github.ehrlichandreas.wiremock.common.ProxyClientSettings;
+import com.github.ehrlichandreas.wiremock.common.StaticResourceCacheSettings;
+import com.github.ehrlichandreas.wiremock.common.ThrottleSettings;
+import com.github.ehrlichandreas.wiremock.common.TlsSettings;
+
 public interface Options extends com.github.tomakehurst.wiremock.core.Options {
     String DEFAULT_ROOT_CONTEXT = "";
     String rootContext();
+    MetricsRegistry metricsRegistry();
+    StaticResourceCacheSettings getStaticResourceCacheSettings();
+    GzipSettings getGzipSettings();
+    ThrottleSettings getThrottleSettings();
+    AdminContextLoading getAdminContextLoading();
+    AdmissionControlSettings getAdmissionControlSettings();
+    AdminConnectorSettings getAdminConnectorSettings();
+    TlsSettings getTlsSettings();
+    ConnectorSettings getConnectorSettings();
+    ProxyClientSettings getProxyClientSettings();
 }
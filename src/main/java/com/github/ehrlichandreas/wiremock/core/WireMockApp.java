@@ -16,32 +16,334 @@
  */
 package com.github.ehrlichandreas.wiremock.core;
 
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
+
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
 
+import com.github.ehrlichandreas.wiremock.admin.AdminRoutes;
+import com.github.ehrlichandreas.wiremock.common.PathPrefixTrie;
+import com.github.ehrlichandreas.wiremock.common.ProxyClientSettings;
+import com.github.ehrlichandreas.wiremock.http.PooledProxyResponseRenderer;
 import com.github.ehrlichandreas.wiremock.http.RequestWrapper;
+import com.github.ehrlichandreas.wiremock.stubbing.CopyOnWriteMappingSet;
+import com.github.ehrlichandreas.wiremock.stubbing.StubMappingsSnapshot;
 import com.github.tomakehurst.wiremock.common.FileSource;
 import com.github.tomakehurst.wiremock.core.Container;
 import com.github.tomakehurst.wiremock.core.MappingsSaver;
 import com.github.tomakehurst.wiremock.core.Options;
+import com.github.tomakehurst.wiremock.extension.AdminApiExtension;
+import com.github.tomakehurst.wiremock.extension.PostServeAction;
 import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.extension.ResponseTransformer;
+import com.github.tomakehurst.wiremock.http.AdminRequestHandler;
+import com.github.tomakehurst.wiremock.http.BasicResponseRenderer;
 import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.http.StubRequestHandler;
+import com.github.tomakehurst.wiremock.http.StubResponseRenderer;
 import com.github.tomakehurst.wiremock.matching.RequestMatcherExtension;
 import com.github.tomakehurst.wiremock.standalone.MappingsLoader;
+import com.github.tomakehurst.wiremock.stubbing.InMemoryStubMappings;
+import com.github.tomakehurst.wiremock.stubbing.Scenarios;
 import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.stubbing.SortedConcurrentMappingSet;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.stubbing.StubMappings;
+import com.github.tomakehurst.wiremock.verification.RequestJournal;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
 
 public class WireMockApp extends com.github.tomakehurst.wiremock.core.WireMockApp {
+
+    private final PathPrefixTrie<StubMapping> proxyRoutes = new PathPrefixTrie<>();
+    private final ConcurrentMap<String, StubMappingsSnapshot> stubMappingsSnapshots = new ConcurrentHashMap<>();
+    private CopyOnWriteMappingSet mappingSet;
+    private PooledProxyResponseRenderer proxyResponseRenderer;
+    private Scenarios scenarios;
+    private Map<String, RequestMatcherExtension> customMatchers;
+    private List<ResponseDefinitionTransformer> transformers;
+    private FileSource filesFileSource;
+    private StubMappingsSnapshot bootSnapshot;
+
     public WireMockApp(Options options, Container container) {
         super(options, container);
+        installCopyOnWriteMappingSet();
     }
 
     public WireMockApp(boolean browserProxyingEnabled, MappingsLoader defaultMappingsLoader, MappingsSaver mappingsSaver, boolean requestJournalDisabled, Optional<Integer> maxRequestJournalEntries, Map<String, ResponseDefinitionTransformer> transformers, Map<String, RequestMatcherExtension> requestMatchers, FileSource rootFileSource, Container container) {
         super(browserProxyingEnabled, defaultMappingsLoader, mappingsSaver, requestJournalDisabled, maxRequestJournalEntries, transformers, requestMatchers, rootFileSource, container);
+        installCopyOnWriteMappingSet();
     }
 
+    @Override
+    public AdminRequestHandler buildAdminRequestHandler() {
+        final Options options = getOptions();
+        final AdminRoutes adminRoutes = AdminRoutes.defaultsPlus(
+                options.extensionsOfType(AdminApiExtension.class).values(),
+                options.getNotMatchedRenderer()
+        );
+        return new AdminRequestHandler(
+                adminRoutes,
+                this,
+                new BasicResponseRenderer(),
+                options.getAdminAuthenticator(),
+                options.getHttpsRequiredForAdminApi()
+        );
+    }
+
+    @Override
+    public StubRequestHandler buildStubRequestHandler() {
+        final Options options = getOptions();
+        final ProxyClientSettings proxyClientSettings = options instanceof com.github.ehrlichandreas.wiremock.core.Options
+                ? ((com.github.ehrlichandreas.wiremock.core.Options) options).getProxyClientSettings()
+                : ProxyClientSettings.DEFAULTS;
+        proxyResponseRenderer = new PooledProxyResponseRenderer(
+                options.proxyVia(),
+                options.httpsSettings().trustStore(),
+                options.shouldPreserveHostHeader(),
+                options.proxyHostHeader(),
+                getGlobalSettingsHolder(),
+                proxyClientSettings
+        );
+
+        if (options instanceof com.github.ehrlichandreas.wiremock.core.Options) {
+            ((com.github.ehrlichandreas.wiremock.core.Options) options).metricsRegistry().register("proxyClientPool", proxyResponseRenderer);
+        }
+
+        return new StubRequestHandler(
+                this,
+                new StubResponseRenderer(
+                        options.filesRoot().child(FILES_ROOT),
+                        getGlobalSettingsHolder(),
+                        proxyResponseRenderer,
+                        ImmutableList.copyOf(options.extensionsOfType(ResponseTransformer.class).values())
+                ),
+                this,
+                options.extensionsOfType(PostServeAction.class),
+                requestJournal()
+        );
+    }
+
+    /**
+     * Closes the upstream connections of the proxy client. A later proxied request opens a
+     * new pool, so this is safe to call whenever the server stops.
+     */
+    public void closeProxyConnections() {
+        if (proxyResponseRenderer == null) {
+            return;
+        }
+
+        try {
+            proxyResponseRenderer.close();
+        } catch (IOException e) {
+            throwUnchecked(e);
+        }
+    }
+
+    /**
+     * Serves a request below a proxy route from the route's stub, unless a regular stub of a
+     * higher priority matches it as well or the route is not in the required scenario state.
+     * Route hits move their scenario on and go through the response definition transformers
+     * just like stub matches do.
+     */
     @Override
     public ServeEvent serveStubFor(Request request) {
         final RequestWrapper requestWrapper = new RequestWrapper(request);
-        return super.serveStubFor(requestWrapper);
+        final StubMapping proxyRoute = mappingSet == null ? null : proxyRoutes.longestPrefixOf(requestWrapper.getUrl());
+
+        if (proxyRoute == null || !outranksStubMappings(proxyRoute, requestWrapper)) {
+            return super.serveStubFor(requestWrapper);
+        }
+
+        scenarios.onStubServed(proxyRoute);
+        final ResponseDefinition responseDefinition = applyTransformations(requestWrapper, proxyRoute.getResponse());
+        return ServeEvent.of(LoggedRequest.createFrom(requestWrapper), ResponseDefinition.copyOf(responseDefinition), proxyRoute);
+    }
+
+    /**
+     * Puts back the stubs as they were loaded on boot, without reading the mapping files
+     * again. Stubs saved to the files since then are only picked up by a restart.
+     */
+    @Override
+    public void resetToDefaultMappings() {
+        if (mappingSet == null) {
+            super.resetToDefaultMappings();
+            return;
+        }
+
+        restoreStubMappings(bootSnapshot);
+        resetRequests();
+    }
+
+    public StubMappingsSnapshot snapshotStubMappings() {
+        checkCopyOnWriteMappingSet();
+        return mappingSet.snapshot();
+    }
+
+    /**
+     * Makes the stubs of the snapshot the current ones. Scenarios are rebuilt from the
+     * restored stubs and start over.
+     */
+    public synchronized void restoreStubMappings(StubMappingsSnapshot snapshot) {
+        checkCopyOnWriteMappingSet();
+        mappingSet.restore(snapshot);
+        scenarios.clear();
+
+        for (StubMapping scenarioMapping : mappingSet.scenarioMappings()) {
+            scenarios.onStubMappingAdded(scenarioMapping);
+        }
+    }
+
+    public void saveStubMappingsSnapshot(String name) {
+        stubMappingsSnapshots.put(name, snapshotStubMappings());
+    }
+
+    public boolean restoreStubMappingsSnapshot(String name) {
+        final StubMappingsSnapshot snapshot = stubMappingsSnapshots.get(name);
+
+        if (snapshot == null) {
+            return false;
+        }
+
+        restoreStubMappings(snapshot);
+        return true;
+    }
+
+    public boolean removeStubMappingsSnapshot(String name) {
+        return stubMappingsSnapshots.remove(name) != null;
+    }
+
+    public Set<String> getStubMappingsSnapshotNames() {
+        return new TreeSet<>(stubMappingsSnapshots.keySet());
+    }
+
+    /**
+     * Serves every request below the given root context with the response of the given stub.
+     * Routes are looked up by their longest literal prefix, so their number does not add to the
+     * matching cost. A route ranks among the regular stubs as if it had been added now: stubs of
+     * a higher priority and stubs of the same priority added later still win. Routes are kept
+     * apart from the regular stubs and are not listed under {@code /__admin/mappings}.
+     */
+    public void addProxyRoute(String rootContext, StubMapping stubMapping) {
+        if (mappingSet != null) {
+            mappingSet.assignInsertionIndex(stubMapping);
+        }
+
+        final StubMapping previous = proxyRoutes.put(rootContext, stubMapping);
+
+        if (scenarios != null) {
+            if (previous != null) {
+                scenarios.onStubMappingRemoved(previous);
+            }
+            scenarios.onStubMappingAdded(stubMapping);
+        }
+    }
+
+    public void removeProxyRoute(String rootContext) {
+        final StubMapping previous = proxyRoutes.remove(rootContext);
+
+        if (scenarios != null && previous != null) {
+            scenarios.onStubMappingRemoved(previous);
+        }
+    }
+
+    /**
+     * Whether the route is in its required scenario state and no regular stub ranked ahead of it
+     * matches the request. Stubs are sorted the way they are matched, so only the ones ahead of
+     * the route are matched: those of a higher priority and those of its own added after it.
+     */
+    private boolean outranksStubMappings(StubMapping proxyRoute, Request request) {
+        if (!inCorrectScenarioState(proxyRoute)) {
+            return false;
+        }
+
+        for (StubMapping stubMapping : mappingSet) {
+            if (!CopyOnWriteMappingSet.isAheadOf(stubMapping, proxyRoute)) {
+                return true;
+            }
+
+            if (stubMapping.getRequest().match(request, customMatchers).isExactMatch() && inCorrectScenarioState(stubMapping)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean inCorrectScenarioState(StubMapping stubMapping) {
+        if (stubMapping.isIndependentOfScenarioState()) {
+            return true;
+        }
+
+        if (scenarios.getByName(stubMapping.getScenarioName()) == null) {
+            // resetting or restoring the stubs drops the scenarios of routes along with their own
+            scenarios.onStubMappingAdded(stubMapping);
+        }
+
+        return scenarios.mappingMatchesScenarioState(stubMapping);
+    }
+
+    private ResponseDefinition applyTransformations(Request request, ResponseDefinition responseDefinition) {
+        ResponseDefinition transformed = responseDefinition;
+
+        for (ResponseDefinitionTransformer transformer : transformers) {
+            if (transformer.applyGlobally() || transformed.hasTransformer(transformer)) {
+                transformed = transformer.transform(request, transformed, filesFileSource, transformed.getTransformerParameters());
+            }
+        }
+
+        return transformed;
+    }
+
+    private RequestJournal requestJournal() {
+        try {
+            return (RequestJournal) FieldUtils.readField(this, "requestJournal", true);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to access the request journal", e);
+        }
+    }
+
+    /**
+     * Swaps the mapping set of the in-memory stub store for a copy-on-write one holding the
+     * mappings loaded so far, which become the boot snapshot. The scenarios, matchers and
+     * transformers of the store are kept to serve proxy routes the way it serves stubs.
+     */
+    @SuppressWarnings("unchecked")
+    private void installCopyOnWriteMappingSet() {
+        try {
+            final StubMappings stubMappings = (StubMappings) FieldUtils.readField(this, "stubMappings", true);
+
+            if (!(stubMappings instanceof InMemoryStubMappings)) {
+                return;
+            }
+
+            final SortedConcurrentMappingSet loadedMappingSet = (SortedConcurrentMappingSet) FieldUtils.readField(stubMappings, "mappings", true);
+            final CopyOnWriteMappingSet copyOnWriteMappingSet = new CopyOnWriteMappingSet(loadedMappingSet);
+            FieldUtils.writeField(stubMappings, "mappings", copyOnWriteMappingSet, true);
+
+            this.scenarios = (Scenarios) FieldUtils.readField(stubMappings, "scenarios", true);
+            this.customMatchers = (Map<String, RequestMatcherExtension>) FieldUtils.readField(stubMappings, "customMatchers", true);
+            this.transformers = ImmutableList.copyOf(((Map<String, ResponseDefinitionTransformer>) FieldUtils.readField(stubMappings, "transformers", true)).values());
+            this.filesFileSource = ((FileSource) FieldUtils.readField(stubMappings, "rootFileSource", true)).child(FILES_ROOT);
+            this.mappingSet = copyOnWriteMappingSet;
+            this.bootSnapshot = copyOnWriteMappingSet.snapshot();
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to install the copy-on-write stub store", e);
+        }
+    }
+
+    private void checkCopyOnWriteMappingSet() {
+        if (mappingSet == null) {
+            throw new UnsupportedOperationException("Stub snapshots need the in-memory stub store");
+        }
     }
 }
@@ -16,10 +16,23 @@
  */
 package com.github.ehrlichandreas.wiremock.core;
 
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.github.ehrlichandreas.wiremock.common.ClasspathFileSource;
+import com.github.ehrlichandreas.wiremock.common.AdminConnectorSettings;
+import com.github.ehrlichandreas.wiremock.common.AdminContextLoading;
+import com.github.ehrlichandreas.wiremock.common.AdmissionControlSettings;
+import com.github.ehrlichandreas.wiremock.common.ConnectorSettings;
+import com.github.ehrlichandreas.wiremock.common.GzipSettings;
+import com.github.ehrlichandreas.wiremock.common.MetricsRegistry;
+import com.github.ehrlichandreas.wiremock.common.ProxyClientSettings;
+import com.github.ehrlichandreas.wiremock.common.StaticResourceCacheSettings;
+import com.github.ehrlichandreas.wiremock.common.ThrottleSettings;
+import com.github.ehrlichandreas.wiremock.common.TlsSettings;
 import com.github.tomakehurst.wiremock.common.AsynchronousResponseSettings;
 import com.github.tomakehurst.wiremock.common.FileSource;
 import com.github.tomakehurst.wiremock.common.HttpsSettings;
@@ -43,6 +56,39 @@ public final class WireMockConfiguration implements Options {
 
     private com.github.tomakehurst.wiremock.core.WireMockConfiguration wireMockConfiguration;
     private String rootContext;
+    private MetricsRegistry metricsRegistry = new MetricsRegistry();
+    private long staticResourceCacheMaxBytes = 0L;
+    private long staticResourceCacheMaxFileSize = 0L;
+    private boolean staticResourceCacheGzipEnabled = true;
+    private int gzipMinSize = GzipSettings.DEFAULT_MIN_GZIP_SIZE;
+    private int gzipCompressionLevel = GzipSettings.DEFAULT_COMPRESSION_LEVEL;
+    private Set<String> gzipMimeTypes = new LinkedHashSet<>();
+    private int gzipDeflaterPoolSize = GzipSettings.DEFAULT_DEFLATER_POOL_SIZE;
+    private long compressedBodyCacheMaxBytes = 0L;
+    private long throttleBytesPerSecond = 0L;
+    private long throttleFirstByteDelayMillis = 0L;
+    private long throttleJitterMillis = 0L;
+    private AdminContextLoading adminContextLoading = AdminContextLoading.EAGER;
+    private int maxInFlightStubRequests = 0;
+    private boolean closeConnectionOnRejection = false;
+    private int adminPort = AdminConnectorSettings.DISABLED_PORT;
+    private int adminThreads = AdminConnectorSettings.DEFAULT_THREADS;
+    private int sslSessionCacheSize = TlsSettings.DEFAULT;
+    private int sslSessionTimeout = TlsSettings.DEFAULT;
+    private String sslProvider;
+    private long idleTimeoutMillis = ConnectorSettings.DEFAULT;
+    private int outputBufferSize = ConnectorSettings.DEFAULT;
+    private int outputAggregationSize = ConnectorSettings.DEFAULT;
+    private int bufferPoolBucketSize = ConnectorSettings.DEFAULT_BUFFER_POOL_BUCKET_SIZE;
+    private int bufferPoolMaxBufferSize = ConnectorSettings.DEFAULT_BUFFER_POOL_MAX_BUFFER_SIZE;
+    private long bufferPoolMaxRetainedBytes = 0L;
+    private int proxyMaxConnectionsPerRoute = ProxyClientSettings.DEFAULT;
+    private int proxyMaxConnectionsTotal = ProxyClientSettings.DEFAULT;
+    private long proxyKeepAliveMillis = ProxyClientSettings.DEFAULT;
+    private int proxyConnectTimeoutMillis = ProxyClientSettings.DEFAULT;
+    private int proxySocketTimeoutMillis = ProxyClientSettings.DEFAULT;
+    private boolean proxyStreaming = false;
+    private int proxyJournalBodyLimit = ProxyClientSettings.DEFAULT_JOURNAL_BODY_LIMIT;
 
     public WireMockConfiguration() {
         this(new com.github.tomakehurst.wiremock.core.WireMockConfiguration());
@@ -74,6 +120,56 @@ public final class WireMockConfiguration implements Options {
 
         if (options instanceof Options) {
             wireMockConfiguration.withRootContext(((Options) options).rootContext());
+            wireMockConfiguration.metricsRegistry(((Options) options).metricsRegistry());
+
+            final StaticResourceCacheSettings staticResourceCacheSettings = ((Options) options).getStaticResourceCacheSettings();
+            wireMockConfiguration.staticResourceCacheMaxBytes(staticResourceCacheSettings.getMaxBytes());
+            wireMockConfiguration.staticResourceCacheMaxFileSize(staticResourceCacheSettings.getMaxFileSize());
+            wireMockConfiguration.staticResourceCacheGzipEnabled(staticResourceCacheSettings.isGzipEnabled());
+
+            final GzipSettings gzipSettings = ((Options) options).getGzipSettings();
+            wireMockConfiguration.gzipMinSize(gzipSettings.getMinGzipSize());
+            wireMockConfiguration.gzipCompressionLevel(gzipSettings.getCompressionLevel());
+            wireMockConfiguration.gzipMimeTypes(gzipSettings.getMimeTypes().toArray(new String[]{}));
+            wireMockConfiguration.gzipDeflaterPoolSize(gzipSettings.getDeflaterPoolSize());
+            wireMockConfiguration.compressedBodyCacheMaxBytes(gzipSettings.getCompressedBodyCacheMaxBytes());
+
+            final ThrottleSettings throttleSettings = ((Options) options).getThrottleSettings();
+            wireMockConfiguration.throttleBytesPerSecond(throttleSettings.getBytesPerSecond());
+            wireMockConfiguration.throttleFirstByteDelayMillis(throttleSettings.getFirstByteDelayMillis());
+            wireMockConfiguration.throttleJitterMillis(throttleSettings.getJitterMillis());
+
+            wireMockConfiguration.adminContextLoading(((Options) options).getAdminContextLoading());
+
+            final AdmissionControlSettings admissionControlSettings = ((Options) options).getAdmissionControlSettings();
+            wireMockConfiguration.maxInFlightStubRequests(admissionControlSettings.getMaxInFlight());
+            wireMockConfiguration.closeConnectionOnRejection(admissionControlSettings.isCloseConnectionOnRejection());
+
+            final AdminConnectorSettings adminConnectorSettings = ((Options) options).getAdminConnectorSettings();
+            wireMockConfiguration.adminPort(adminConnectorSettings.getPort());
+            wireMockConfiguration.adminThreads(adminConnectorSettings.getThreads());
+
+            final TlsSettings tlsSettings = ((Options) options).getTlsSettings();
+            wireMockConfiguration.sslSessionCacheSize(tlsSettings.getSessionCacheSize());
+            wireMockConfiguration.sslSessionTimeout(tlsSettings.getSessionTimeoutSeconds());
+            wireMockConfiguration.sslProvider(tlsSettings.getProvider());
+
+            final ConnectorSettings connectorSettings = ((Options) options).getConnectorSettings();
+            wireMockConfiguration.idleTimeout(connectorSettings.getIdleTimeoutMillis());
+            wireMockConfiguration.outputBufferSize(connectorSettings.getOutputBufferSize());
+            wireMockConfiguration.outputAggregationSize(connectorSettings.getOutputAggregationSize());
+            wireMockConfiguration.bufferPoolBucketSize(connectorSettings.getBufferPoolBucketSize());
+            wireMockConfiguration.bufferPoolMaxBufferSize(connectorSettings.getBufferPoolMaxBufferSize());
+            wireMockConfiguration.bufferPoolMaxRetainedBytes(connectorSettings.getBufferPoolMaxRetainedBytes());
+
+            final ProxyClientSettings proxyClientSettings = ((Options) options).getProxyClientSettings();
+            wireMockConfiguration.proxyMaxConnectionsPerRoute(proxyClientSettings.getMaxConnectionsPerRoute());
+            wireMockConfiguration.proxyMaxConnectionsTotal(proxyClientSettings.getMaxConnectionsTotal());
+            wireMockConfiguration.proxyKeepAlive(proxyClientSettings.getKeepAliveMillis());
+            wireMockConfiguration.proxyConnectTimeout(proxyClientSettings.getConnectTimeoutMillis());
+            wireMockConfiguration.proxySocketTimeout(proxyClientSettings.getSocketTimeoutMillis());
+            wireMockConfiguration.proxyStreaming(proxyClientSettings.isStreamResponses());
+            wireMockConfiguration.proxyJournalBodyLimit(proxyClientSettings.getJournalBodyLimit());
         }
 
         wireMockConfiguration.port(options.portNumber());
@@ -149,6 +245,16 @@ public final class WireMockConfiguration implements Options {
         }).or(DEFAULT_ROOT_CONTEXT);
     }
 
+    public WireMockConfiguration metricsRegistry(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+        return this;
+    }
+
+    @Override
+    public MetricsRegistry metricsRegistry() {
+        return metricsRegistry;
+    }
+
     public WireMockConfiguration port(int portNumber) {
         wireMockConfiguration.port(portNumber);
         return this;
@@ -369,6 +475,171 @@ public final class WireMockConfiguration implements Options {
         return this;
     }
 
+    public WireMockConfiguration staticResourceCacheMaxBytes(long staticResourceCacheMaxBytes) {
+        this.staticResourceCacheMaxBytes = staticResourceCacheMaxBytes;
+        return this;
+    }
+
+    public WireMockConfiguration staticResourceCacheMaxFileSize(long staticResourceCacheMaxFileSize) {
+        this.staticResourceCacheMaxFileSize = staticResourceCacheMaxFileSize;
+        return this;
+    }
+
+    public WireMockConfiguration staticResourceCacheGzipEnabled(boolean staticResourceCacheGzipEnabled) {
+        this.staticResourceCacheGzipEnabled = staticResourceCacheGzipEnabled;
+        return this;
+    }
+
+    public WireMockConfiguration gzipMinSize(int gzipMinSize) {
+        this.gzipMinSize = gzipMinSize;
+        return this;
+    }
+
+    public WireMockConfiguration gzipCompressionLevel(int gzipCompressionLevel) {
+        this.gzipCompressionLevel = gzipCompressionLevel;
+        return this;
+    }
+
+    public WireMockConfiguration gzipMimeTypes(String... gzipMimeTypes) {
+        this.gzipMimeTypes = new LinkedHashSet<>(Arrays.asList(gzipMimeTypes));
+        return this;
+    }
+
+    public WireMockConfiguration gzipDeflaterPoolSize(int gzipDeflaterPoolSize) {
+        this.gzipDeflaterPoolSize = gzipDeflaterPoolSize;
+        return this;
+    }
+
+    public WireMockConfiguration compressedBodyCacheMaxBytes(long compressedBodyCacheMaxBytes) {
+        this.compressedBodyCacheMaxBytes = compressedBodyCacheMaxBytes;
+        return this;
+    }
+
+    public WireMockConfiguration throttleBytesPerSecond(long throttleBytesPerSecond) {
+        this.throttleBytesPerSecond = throttleBytesPerSecond;
+        return this;
+    }
+
+    public WireMockConfiguration throttleFirstByteDelayMillis(long throttleFirstByteDelayMillis) {
+        this.throttleFirstByteDelayMillis = throttleFirstByteDelayMillis;
+        return this;
+    }
+
+    public WireMockConfiguration throttleJitterMillis(long throttleJitterMillis) {
+        this.throttleJitterMillis = throttleJitterMillis;
+        return this;
+    }
+
+    public WireMockConfiguration adminContextLoading(AdminContextLoading adminContextLoading) {
+        this.adminContextLoading = adminContextLoading;
+        return this;
+    }
+
+    public WireMockConfiguration maxInFlightStubRequests(int maxInFlightStubRequests) {
+        this.maxInFlightStubRequests = maxInFlightStubRequests;
+        return this;
+    }
+
+    public WireMockConfiguration closeConnectionOnRejection(boolean closeConnectionOnRejection) {
+        this.closeConnectionOnRejection = closeConnectionOnRejection;
+        return this;
+    }
+
+    public WireMockConfiguration adminPort(int adminPort) {
+        this.adminPort = adminPort;
+        return this;
+    }
+
+    public WireMockConfiguration dynamicAdminPort() {
+        this.adminPort = 0;
+        return this;
+    }
+
+    public WireMockConfiguration adminThreads(int adminThreads) {
+        this.adminThreads = adminThreads;
+        return this;
+    }
+
+    public WireMockConfiguration sslSessionCacheSize(int sslSessionCacheSize) {
+        this.sslSessionCacheSize = sslSessionCacheSize;
+        return this;
+    }
+
+    public WireMockConfiguration sslSessionTimeout(int sslSessionTimeoutSeconds) {
+        this.sslSessionTimeout = sslSessionTimeoutSeconds;
+        return this;
+    }
+
+    public WireMockConfiguration sslProvider(String sslProvider) {
+        this.sslProvider = sslProvider;
+        return this;
+    }
+
+    public WireMockConfiguration idleTimeout(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        return this;
+    }
+
+    public WireMockConfiguration outputBufferSize(int outputBufferSize) {
+        this.outputBufferSize = outputBufferSize;
+        return this;
+    }
+
+    public WireMockConfiguration outputAggregationSize(int outputAggregationSize) {
+        this.outputAggregationSize = outputAggregationSize;
+        return this;
+    }
+
+    public WireMockConfiguration bufferPoolBucketSize(int bufferPoolBucketSize) {
+        this.bufferPoolBucketSize = bufferPoolBucketSize;
+        return this;
+    }
+
+    public WireMockConfiguration bufferPoolMaxBufferSize(int bufferPoolMaxBufferSize) {
+        this.bufferPoolMaxBufferSize = bufferPoolMaxBufferSize;
+        return this;
+    }
+
+    public WireMockConfiguration bufferPoolMaxRetainedBytes(long bufferPoolMaxRetainedBytes) {
+        this.bufferPoolMaxRetainedBytes = bufferPoolMaxRetainedBytes;
+        return this;
+    }
+
+    public WireMockConfiguration proxyMaxConnectionsPerRoute(int proxyMaxConnectionsPerRoute) {
+        this.proxyMaxConnectionsPerRoute = proxyMaxConnectionsPerRoute;
+        return this;
+    }
+
+    public WireMockConfiguration proxyMaxConnectionsTotal(int proxyMaxConnectionsTotal) {
+        this.proxyMaxConnectionsTotal = proxyMaxConnectionsTotal;
+        return this;
+    }
+
+    public WireMockConfiguration proxyKeepAlive(long proxyKeepAliveMillis) {
+        this.proxyKeepAliveMillis = proxyKeepAliveMillis;
+        return this;
+    }
+
+    public WireMockConfiguration proxyConnectTimeout(int proxyConnectTimeoutMillis) {
+        this.proxyConnectTimeoutMillis = proxyConnectTimeoutMillis;
+        return this;
+    }
+
+    public WireMockConfiguration proxySocketTimeout(int proxySocketTimeoutMillis) {
+        this.proxySocketTimeoutMillis = proxySocketTimeoutMillis;
+        return this;
+    }
+
+    public WireMockConfiguration proxyStreaming(boolean proxyStreaming) {
+        this.proxyStreaming = proxyStreaming;
+        return this;
+    }
+
+    public WireMockConfiguration proxyJournalBodyLimit(int proxyJournalBodyLimit) {
+        this.proxyJournalBodyLimit = proxyJournalBodyLimit;
+        return this;
+    }
+
     public int portNumber() {
         return wireMockConfiguration.portNumber();
     }
@@ -464,4 +735,49 @@ public final class WireMockConfiguration implements Options {
     public AsynchronousResponseSettings getAsynchronousResponseSettings() {
         return wireMockConfiguration.getAsynchronousResponseSettings();
     }
+
+    @Override
+    public StaticResourceCacheSettings getStaticResourceCacheSettings() {
+        return new StaticResourceCacheSettings(staticResourceCacheMaxBytes, staticResourceCacheMaxFileSize, staticResourceCacheGzipEnabled);
+    }
+
+    @Override
+    public GzipSettings getGzipSettings() {
+        return new GzipSettings(gzipMinSize, gzipCompressionLevel, gzipMimeTypes, gzipDeflaterPoolSize, compressedBodyCacheMaxBytes);
+    }
+
+    @Override
+    public ThrottleSettings getThrottleSettings() {
+        return new ThrottleSettings(throttleBytesPerSecond, throttleFirstByteDelayMillis, throttleJitterMillis);
+    }
+
+    @Override
+    public AdminContextLoading getAdminContextLoading() {
+        return adminContextLoading;
+    }
+
+    @Override
+    public AdmissionControlSettings getAdmissionControlSettings() {
+        return new AdmissionControlSettings(maxInFlightStubRequests, closeConnectionOnRejection);
+    }
+
+    @Override
+    public AdminConnectorSettings getAdminConnectorSettings() {
+        return new AdminConnectorSettings(adminPort, adminThreads);
+    }
+
+    @Override
+    public TlsSettings getTlsSettings() {
+        return new TlsSettings(sslSessionCacheSize, sslSessionTimeout, sslProvider);
+    }
+
+    @Override
+    public ConnectorSettings getConnectorSettings() {
+        return new ConnectorSettings(idleTimeoutMillis, outputBufferSize, outputAggregationSize, bufferPoolBucketSize, bufferPoolMaxBufferSize, bufferPoolMaxRetainedBytes);
+    }
+
+    @Override
+    public ProxyClientSettings getProxyClientSettings() {
+        return new ProxyClientSettings(proxyMaxConnectionsPerRoute, proxyMaxConnectionsTotal, proxyKeepAliveMillis, proxyConnectTimeoutMillis, proxySocketTimeoutMillis, proxyStreaming, proxyJournalBodyLimit);
+    }
 }
@@ -1,20 +1,36 @@
 package com.github.ehrlichandreas.wiremock.creater;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
 
 import com.github.ehrlichandreas.wiremock.WireMockServer;
 import com.github.ehrlichandreas.wiremock.core.WireMockConfiguration;
+import com.github.ehrlichandreas.wiremock.extension.InProcessDispatchTransformer;
+import com.github.ehrlichandreas.wiremock.extension.ResponseThrottleTransformer;
 import com.github.ehrlichandreas.wiremock.extension.responsetemplating.helpers.MimeTypeToSubType;
 import com.github.ehrlichandreas.wiremock.jetty9.JettyHttpServerFactory;
+import com.github.ehrlichandreas.wiremock.jetty9.SharedThreadPoolFactory;
 import com.github.jknack.handlebars.Helper;
 import com.github.tomakehurst.wiremock.extension.responsetemplating.ResponseTemplateTransformer;
+import com.github.tomakehurst.wiremock.extension.Extension;
 import com.github.tomakehurst.wiremock.http.trafficlistener.ConsoleNotifyingWiremockNetworkTrafficListener;
 import com.github.tomakehurst.wiremock.http.trafficlistener.WiremockNetworkTrafficListener;
 import com.google.common.collect.ImmutableMap;
 
 public class WireMockCreater {
 
+    private static final long STATIC_RESOURCE_CACHE_MAX_BYTES = 32L * 1024 * 1024;
+    private static final long STATIC_RESOURCE_CACHE_MAX_FILE_SIZE = 1024L * 1024;
+    private static final long COMPRESSED_BODY_CACHE_MAX_BYTES = 16L * 1024 * 1024;
+    private static final int SHARED_WORKER_THREADS = 14;
+
     private final WireMockProperties wireMockProperties;
 
     public WireMockCreater() {
@@ -50,7 +66,52 @@ public class WireMockCreater {
         return new WireMockServer(wireMockConfiguration);
     }
 
+    /**
+     * Creates a server hosted by the Jetty of the given server under this creater's stubs root
+     * context, sharing its port, connectors and threads.
+     */
+    public WireMockServer createWireMockMountedOn(WireMockServer host) {
+        final WireMockConfiguration wireMockConfiguration = createWireMockConfiguration();
+        wireMockConfiguration.httpServerFactory(host.tenantHttpServerFactory());
+        return new WireMockServer(wireMockConfiguration);
+    }
+
     public WireMockConfiguration createWireMockConfiguration() {
+        return createWireMockConfiguration(new SharedComponents(createResponseTemplateTransformer(), null));
+    }
+
+    /**
+     * Creates one server per properties and starts them concurrently. The servers share their
+     * extensions, Handlebars helpers, HTTP server factory, traffic listener and a single Jetty
+     * thread pool; SSL contexts are shared by the Jetty servers anyway. If one server fails to
+     * start, the ones already running are stopped again and the failure is rethrown.
+     */
+    public static List<WireMockServer> createWireMocks(Collection<WireMockProperties> wireMockPropertiesCollection) {
+        if (wireMockPropertiesCollection.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final SharedComponents sharedComponents = new SharedComponents(of().createResponseTemplateTransformer(),
+                new SharedThreadPoolFactory(SHARED_WORKER_THREADS));
+        final List<WireMockServer> wireMockServers = wireMockPropertiesCollection.stream()
+                .map(wireMockProperties -> of(wireMockProperties).createWireMockConfiguration(sharedComponents))
+                .map(WireMockServer::new)
+                .collect(Collectors.toCollection(ArrayList::new));
+        final List<CompletableFuture<Integer>> futures = wireMockServers.stream()
+                .map(WireMockServer::startAsync)
+                .collect(Collectors.toList());
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            wireMockServers.stream().filter(WireMockServer::isRunning).forEach(WireMockServer::stop);
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+
+        return wireMockServers;
+    }
+
+    private WireMockConfiguration createWireMockConfiguration(SharedComponents sharedComponents) {
         final WireMockConfiguration wireMockConfiguration = WireMockConfiguration.wireMockConfig();
 
         final WireMockProperties wireMockProperties = getWireMockProperties();
@@ -59,23 +120,29 @@ public class WireMockCreater {
 
         final String stubsDirectory = wireMockProperties.getStubsDirectory();
         wireMockConfiguration.usingFilesUnderClasspath(stubsDirectory);
+        wireMockConfiguration.staticResourceCacheMaxBytes(STATIC_RESOURCE_CACHE_MAX_BYTES);
+        wireMockConfiguration.staticResourceCacheMaxFileSize(STATIC_RESOURCE_CACHE_MAX_FILE_SIZE);
+        wireMockConfiguration.compressedBodyCacheMaxBytes(COMPRESSED_BODY_CACHE_MAX_BYTES);
 
         final String stubsRootContext = wireMockProperties.getStubsRootContext();
         wireMockConfiguration.withRootContext(stubsRootContext);
+        wireMockConfiguration.adminContextLoading(wireMockProperties.getAdminContextLoading());
 
-        final Map<String, Helper> helpers = createHandlebarsHelpers();
-        final ResponseTemplateTransformer responseTemplateTransformer = new ResponseTemplateTransformer(false, helpers);
-        wireMockConfiguration.extensions(responseTemplateTransformer);
+        wireMockConfiguration.extensions(sharedComponents.getExtensions());
+        wireMockConfiguration.httpServerFactory(sharedComponents.getServerFactory());
+        wireMockConfiguration.networkTrafficListener(sharedComponents.getNetworkTrafficListener());
 
-        final JettyHttpServerFactory serverFactory = new JettyHttpServerFactory();
-        wireMockConfiguration.httpServerFactory(serverFactory);
-
-        final WiremockNetworkTrafficListener networkTrafficListener = new ConsoleNotifyingWiremockNetworkTrafficListener();
-        wireMockConfiguration.networkTrafficListener(networkTrafficListener);
+        if (sharedComponents.getThreadPoolFactory() != null) {
+            wireMockConfiguration.threadPoolFactory(sharedComponents.getThreadPoolFactory());
+        }
 
         return wireMockConfiguration;
     }
 
+    private ResponseTemplateTransformer createResponseTemplateTransformer() {
+        return new ResponseTemplateTransformer(false, createHandlebarsHelpers());
+    }
+
     public Map<String, Helper> createHandlebarsHelpers() {
         final ImmutableMap.Builder<String, Helper> stringHelperBuilder = new ImmutableMap.Builder<>();
         stringHelperBuilder.put("mimetype-subtype", new MimeTypeToSubType());
@@ -101,4 +168,41 @@ public class WireMockCreater {
     public String toString() {
         return "WireMockStarter{" + "wireMockProperties=" + wireMockProperties + '}';
     }
+
+    /**
+     * The stateless or thread-safe parts of a server configuration, built once per set of
+     * servers. Without a thread pool factory each server keeps a Jetty thread pool of its own.
+     */
+    private static final class SharedComponents {
+
+        private final Extension[] extensions;
+        private final JettyHttpServerFactory serverFactory;
+        private final WiremockNetworkTrafficListener networkTrafficListener;
+        private final SharedThreadPoolFactory threadPoolFactory;
+
+        private SharedComponents(ResponseTemplateTransformer responseTemplateTransformer, SharedThreadPoolFactory threadPoolFactory) {
+            final ResponseThrottleTransformer responseThrottleTransformer = new ResponseThrottleTransformer();
+            final InProcessDispatchTransformer inProcessDispatchTransformer = new InProcessDispatchTransformer();
+            this.extensions = new Extension[] { responseTemplateTransformer, responseThrottleTransformer, inProcessDispatchTransformer };
+            this.serverFactory = new JettyHttpServerFactory();
+            this.networkTrafficListener = new ConsoleNotifyingWiremockNetworkTrafficListener();
+            this.threadPoolFactory = threadPoolFactory;
+        }
+
+        private Extension[] getExtensions() {
+            return extensions;
+        }
+
+        private JettyHttpServerFactory getServerFactory() {
+            return serverFactory;
+        }
+
+        private WiremockNetworkTrafficListener getNetworkTrafficListener() {
+            return networkTrafficListener;
+        }
+
+        private SharedThreadPoolFactory getThreadPoolFactory() {
+            return threadPoolFactory;
+        }
+    }
 }
@@ -2,6 +2,7 @@ package com.github.ehrlichandreas.wiremock.creater;
 
 import java.util.Objects;
 
+import com.github.ehrlichandreas.wiremock.common.AdminContextLoading;
 import com.github.ehrlichandreas.wiremock.core.Options;
 
 public class WireMockProperties {
@@ -9,15 +10,22 @@ public class WireMockProperties {
     private int serverPort;
     private String stubsDirectory;
     private String stubsRootContext;
+    private AdminContextLoading adminContextLoading;
 
     public WireMockProperties() {
         this(Options.DEFAULT_PORT, "wiremock-stubs", Options.DEFAULT_ROOT_CONTEXT);
     }
 
     public WireMockProperties(final int serverPort, final String stubsDirectory, final String stubsRootContext) {
+        this(serverPort, stubsDirectory, stubsRootContext, AdminContextLoading.LAZY_ASSETS);
+    }
+
+    public WireMockProperties(final int serverPort, final String stubsDirectory, final String stubsRootContext,
+                              final AdminContextLoading adminContextLoading) {
         this.serverPort = serverPort;
         this.stubsDirectory = stubsDirectory;
         this.stubsRootContext = stubsRootContext;
+        this.adminContextLoading = adminContextLoading;
     }
 
     public static WireMockProperties wireMockProperties() {
@@ -33,20 +41,33 @@ public class WireMockProperties {
         return new WireMockProperties(serverPort, stubsDirectory, stubsRootContext);
     }
 
+    public static WireMockProperties of(final int serverPort, final String stubsDirectory,
+                                        final String stubsRootContext, final AdminContextLoading adminContextLoading) {
+        return new WireMockProperties(serverPort, stubsDirectory, stubsRootContext, adminContextLoading);
+    }
+
     public WireMockProperties withDynamicServerPort() {
         return this.withServerPort(0);
     }
 
     public WireMockProperties withServerPort(final int serverPort) {
-        return of(serverPort, getStubsDirectory(), getStubsRootContext());
+        return of(serverPort, getStubsDirectory(), getStubsRootContext(), getAdminContextLoading());
     }
 
     public WireMockProperties withStubsDirectory(final String stubsDirectory) {
-        return of(getServerPort(), stubsDirectory, getStubsRootContext());
+        return of(getServerPort(), stubsDirectory, getStubsRootContext(), getAdminContextLoading());
     }
 
     public WireMockProperties withStubsRootContext(final String stubsRootContext) {
-        return of(getServerPort(), getStubsDirectory(), stubsRootContext);
+        return of(getServerPort(), getStubsDirectory(), stubsRootContext, getAdminContextLoading());
+    }
+
+    public WireMockProperties withLazyAdminContext() {
+        return this.withAdminContextLoading(AdminContextLoading.LAZY);
+    }
+
+    public WireMockProperties withAdminContextLoading(final AdminContextLoading adminContextLoading) {
+        return of(getServerPort(), getStubsDirectory(), getStubsRootContext(), adminContextLoading);
     }
 
     public int getServerPort() {
@@ -61,6 +82,10 @@ public class WireMockProperties {
         return this.stubsRootContext;
     }
 
+    public AdminContextLoading getAdminContextLoading() {
+        return this.adminContextLoading;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o)
@@ -69,17 +94,18 @@ public class WireMockProperties {
             return false;
         WireMockProperties that = (WireMockProperties) o;
         return getServerPort() == that.getServerPort() && Objects.equals(getStubsDirectory(), that.getStubsDirectory())
-                && Objects.equals(getStubsRootContext(), that.getStubsRootContext());
+                && Objects.equals(getStubsRootContext(), that.getStubsRootContext())
+                && getAdminContextLoading() == that.getAdminContextLoading();
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getServerPort(), getStubsDirectory(), getStubsRootContext());
+        return Objects.hash(getServerPort(), getStubsDirectory(), getStubsRootContext(), getAdminContextLoading());
     }
 
     @Override
     public String toString() {
         return "WireMockProperties{" + "serverPort=" + serverPort + ", stubsDirectory='" + stubsDirectory + '\''
-                + ", stubsRootContext='" + stubsRootContext + '\'' + '}';
+                + ", stubsRootContext='" + stubsRootContext + '\'' + ", adminContextLoading=" + adminContextLoading + '}';
     }
 }
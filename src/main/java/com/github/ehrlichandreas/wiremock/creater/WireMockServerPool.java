@@ -0,0 +1,162 @@
+package com.github.ehrlichandreas.wiremock.creater;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+
+import com.github.ehrlichandreas.wiremock.WireMockServer;
+import com.github.ehrlichandreas.wiremock.stubbing.StubMappingsSnapshot;
+import com.github.tomakehurst.wiremock.global.GlobalSettings;
+
+/**
+ * Started servers kept for reuse between tests, keyed by the properties they were created
+ * with. A server checked out of the pool is running and holds exactly the stubs it loaded on
+ * start; checking it back in resets it to that baseline instead of stopping it. The baseline
+ * stubs are a snapshot taken right after start, restored in constant time and never re-read
+ * from the stub files. Requests, scenarios and global settings are reset as well. Pooled
+ * servers always listen on a dynamic port, whatever port the properties they are kept under
+ * name, so any number of them can run side by side.
+ */
+public class WireMockServerPool implements Closeable {
+
+    private final ConcurrentMap<WireMockProperties, Deque<WireMockServer>> idleWireMockServers = new ConcurrentHashMap<>();
+    private final Map<WireMockServer, Baseline> baselines = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final Set<WireMockServer> checkedOutWireMockServers = Collections.synchronizedSet(
+            Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    public static WireMockServerPool wireMockServerPool() {
+        return new WireMockServerPool();
+    }
+
+    /**
+     * Starts the given number of servers for the properties up front, concurrently and
+     * sharing their components, so later check-outs do not pay for Jetty startup.
+     */
+    public WireMockServerPool prewarm(WireMockProperties wireMockProperties, int count) {
+        final List<WireMockServer> wireMockServers = WireMockCreater.createWireMocks(
+                Collections.nCopies(Math.max(0, count), wireMockProperties.withDynamicServerPort()));
+        wireMockServers.forEach(wireMockServer -> register(wireMockProperties, wireMockServer));
+        idleWireMockServers(wireMockProperties).addAll(wireMockServers);
+        return this;
+    }
+
+    public WireMockServer checkout(WireMockProperties wireMockProperties) {
+        final WireMockServer idleWireMockServer = idleWireMockServers(wireMockProperties).pollFirst();
+
+        if (idleWireMockServer != null) {
+            checkedOutWireMockServers.add(idleWireMockServer);
+            return idleWireMockServer;
+        }
+
+        final WireMockServer wireMockServer = WireMockCreater.of(wireMockProperties.withDynamicServerPort()).createWireMock();
+        wireMockServer.start();
+        register(wireMockProperties, wireMockServer);
+        checkedOutWireMockServers.add(wireMockServer);
+        return wireMockServer;
+    }
+
+    public void checkin(WireMockServer wireMockServer) {
+        final Baseline baseline = baselines.get(wireMockServer);
+
+        if (baseline == null) {
+            throw new IllegalArgumentException(wireMockServer + " was not checked out of this pool");
+        }
+
+        if (!checkedOutWireMockServers.remove(wireMockServer)) {
+            throw new IllegalStateException(wireMockServer + " is already checked in");
+        }
+
+        if (!wireMockServer.isRunning()) {
+            baselines.remove(wireMockServer);
+            return;
+        }
+
+        baseline.restore(wireMockServer);
+        idleWireMockServers(baseline.getWireMockProperties()).addFirst(wireMockServer);
+    }
+
+    public int idleCount(WireMockProperties wireMockProperties) {
+        return idleWireMockServers(wireMockProperties).size();
+    }
+
+    /**
+     * Stops every server of the pool, whether idle or still checked out. Servers started by
+     * {@link #prewarm} share a thread pool, which stops together with the last of them, so
+     * every server is stopped even if stopping one of them fails.
+     */
+    @Override
+    public void close() {
+        final Collection<WireMockServer> wireMockServers;
+
+        synchronized (baselines) {
+            wireMockServers = new ArrayList<>(baselines.keySet());
+            baselines.clear();
+        }
+
+        checkedOutWireMockServers.clear();
+        idleWireMockServers.clear();
+
+        RuntimeException failure = null;
+
+        for (WireMockServer wireMockServer : wireMockServers) {
+            try {
+                if (wireMockServer.isRunning()) {
+                    wireMockServer.stop();
+                }
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private Deque<WireMockServer> idleWireMockServers(WireMockProperties wireMockProperties) {
+        return idleWireMockServers.computeIfAbsent(wireMockProperties, key -> new ConcurrentLinkedDeque<>());
+    }
+
+    private void register(WireMockProperties wireMockProperties, WireMockServer wireMockServer) {
+        baselines.put(wireMockServer, new Baseline(wireMockProperties, wireMockServer));
+    }
+
+    /**
+     * The loaded stubs and global settings of a freshly started server.
+     */
+    private static final class Baseline {
+
+        private final WireMockProperties wireMockProperties;
+        private final StubMappingsSnapshot stubMappings;
+        private final GlobalSettings globalSettings;
+
+        private Baseline(WireMockProperties wireMockProperties, WireMockServer wireMockServer) {
+            this.wireMockProperties = wireMockProperties;
+            this.stubMappings = wireMockServer.snapshotStubMappings();
+            this.globalSettings = wireMockServer.getGlobalSettingsHolder().get();
+        }
+
+        private WireMockProperties getWireMockProperties() {
+            return wireMockProperties;
+        }
+
+        private void restore(WireMockServer wireMockServer) {
+            wireMockServer.restoreStubMappings(stubMappings);
+            wireMockServer.resetRequests();
+            wireMockServer.updateGlobalSettings(globalSettings);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.extension;
+
+import com.github.ehrlichandreas.wiremock.http.DispatchTarget;
+import com.github.ehrlichandreas.wiremock.http.InProcessDispatcher;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseTransformer;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.Response;
+
+/**
+ * Answers stubs carrying a {@code dispatchTo} transformer parameter with the response of the
+ * server listening on that port in the same JVM, e.g.
+ * {@code "transformerParameters": {"dispatchTo": 8081}}. The stub's own response is kept as the
+ * fallback when no such server is running. A name instead of a port dispatches to the
+ * target registered under that name.
+ */
+public class InProcessDispatchTransformer extends ResponseTransformer {
+
+    public static final String NAME = "in-process-dispatch";
+    public static final String PARAMETER = "dispatchTo";
+
+    @Override
+    public Response transform(Request request, Response response, FileSource files, Parameters parameters) {
+        final Object dispatchTo = parameters == null ? null : parameters.get(PARAMETER);
+
+        if (!(dispatchTo instanceof Number) && !(dispatchTo instanceof String)) {
+            return response;
+        }
+
+        final DispatchTarget dispatchTarget = dispatchTo instanceof Number
+                ? InProcessDispatcher.forPort(((Number) dispatchTo).intValue())
+                : InProcessDispatcher.forName((String) dispatchTo);
+
+        if (dispatchTarget == null) {
+            return response;
+        }
+
+        final Response dispatched = dispatchTarget.dispatch(request);
+        return dispatched != null ? dispatched : response;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.extension;
+
+import java.util.Map;
+
+import com.github.ehrlichandreas.wiremock.common.ThrottleSettings;
+import com.github.ehrlichandreas.wiremock.http.ThrottledResponse;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.common.Metadata;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseTransformer;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.Response;
+
+/**
+ * Shapes the responses of stubs carrying a {@code throttle} transformer parameter, e.g.
+ * {@code "transformerParameters": {"throttle": {"bytesPerSecond": 204800, "firstByteDelayMillis": 50, "jitterMillis": 20}}}.
+ * The shaping itself happens when the body is written.
+ */
+public class ResponseThrottleTransformer extends ResponseTransformer {
+
+    public static final String NAME = "response-throttle";
+    public static final String PARAMETER = "throttle";
+
+    @Override
+    public Response transform(Request request, Response response, FileSource files, Parameters parameters) {
+        if (parameters == null || !(parameters.get(PARAMETER) instanceof Map)) {
+            return response;
+        }
+
+        final Metadata throttle = parameters.getMetadata(PARAMETER);
+        final ThrottleSettings throttleSettings = new ThrottleSettings(
+                longValue(throttle, "bytesPerSecond"),
+                longValue(throttle, "firstByteDelayMillis"),
+                longValue(throttle, "jitterMillis")
+        );
+
+        return new ThrottledResponse(response, throttleSettings);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    private static long longValue(Metadata metadata, String key) {
+        final Object value = metadata.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.http;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.github.tomakehurst.wiremock.http.HttpResponder;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestHandler;
+import com.github.tomakehurst.wiremock.http.Response;
+
+/**
+ * Serves requests through the stub request handler of a server running in the same JVM,
+ * bypassing its connector. Started servers register under their HTTP port, so a front server
+ * can hand a request to a sub-server without a loopback round trip. The request is matched,
+ * journaled and rendered by the sub-server exactly as if it had arrived over HTTP; delays and
+ * faults are carried on the returned response and applied by whoever writes it. Other
+ * {@link DispatchTarget}s may register under a name of their own.
+ */
+public class InProcessDispatcher implements DispatchTarget {
+
+    private static final ConcurrentMap<String, DispatchTarget> DISPATCH_TARGETS = new ConcurrentHashMap<>();
+
+    private final RequestHandler stubRequestHandler;
+    private final String rootContext;
+
+    public InProcessDispatcher(RequestHandler stubRequestHandler, String rootContext) {
+        this.stubRequestHandler = stubRequestHandler;
+        this.rootContext = rootContext == null || rootContext.trim().equals("/") ? "" : rootContext.trim();
+    }
+
+    public static void register(int port, DispatchTarget dispatchTarget) {
+        register(String.valueOf(port), dispatchTarget);
+    }
+
+    public static void register(String name, DispatchTarget dispatchTarget) {
+        DISPATCH_TARGETS.put(name, dispatchTarget);
+    }
+
+    public static void unregister(int port, DispatchTarget dispatchTarget) {
+        unregister(String.valueOf(port), dispatchTarget);
+    }
+
+    public static void unregister(String name, DispatchTarget dispatchTarget) {
+        DISPATCH_TARGETS.remove(name, dispatchTarget);
+    }
+
+    public static DispatchTarget forPort(int port) {
+        return forName(String.valueOf(port));
+    }
+
+    public static DispatchTarget forName(String name) {
+        return DISPATCH_TARGETS.get(name);
+    }
+
+    @Override
+    public Response dispatch(Request request) {
+        final AtomicReference<Response> response = new AtomicReference<>();
+
+        stubRequestHandler.handle(new ContextRelativeRequest(request, rootContext), new HttpResponder() {
+            @Override
+            public void respond(Request request, Response rendered) {
+                response.set(rendered);
+            }
+        });
+
+        return response.get();
+    }
+
+    /**
+     * Strips the root context of the target the same way its servlet context would.
+     */
+    private static class ContextRelativeRequest extends RequestWrapper {
+
+        private final String rootContext;
+
+        ContextRelativeRequest(Request request, String rootContext) {
+            super(request);
+            this.rootContext = rootContext;
+        }
+
+        @Override
+        public String getUrl() {
+            final String url = super.getUrl();
+
+            if (rootContext.isEmpty() || !url.startsWith(rootContext)) {
+                return url;
+            }
+
+            final String relativeUrl = url.substring(rootContext.length());
+            return relativeUrl.isEmpty() ? "/" : relativeUrl;
+        }
+    }
+}
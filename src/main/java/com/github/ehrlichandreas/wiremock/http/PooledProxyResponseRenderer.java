@@ -0,0 +1,342 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.http;
+
+import static com.github.tomakehurst.wiremock.common.HttpClientUtils.getEntityAsByteArrayAndCloseStream;
+import static com.github.tomakehurst.wiremock.http.Response.response;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.net.ssl.SSLContext;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.NoConnectionReuseStrategy;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultClientConnectionReuseStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.ProxyAuthenticationStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+
+import com.github.ehrlichandreas.wiremock.common.ProxyClientSettings;
+import com.github.tomakehurst.wiremock.common.Exceptions;
+import com.github.tomakehurst.wiremock.common.KeyStoreSettings;
+import com.github.tomakehurst.wiremock.common.ProxySettings;
+import com.github.tomakehurst.wiremock.global.GlobalSettings;
+import com.github.tomakehurst.wiremock.global.GlobalSettingsHolder;
+import com.github.tomakehurst.wiremock.http.HttpClientFactory;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.ProxyResponseRenderer;
+import com.github.tomakehurst.wiremock.http.Response;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.google.common.base.Supplier;
+
+/**
+ * Proxy renderer forwarding through a client with a pool this server controls. Upstream
+ * connections are kept alive and reused across requests, validated only after a period of
+ * inactivity instead of by a stale check on every request, evicted once idle for longer than
+ * the keep-alive, and the pool statistics are available as a metric source. When streaming,
+ * the upstream body is handed on unread as a {@link StreamedResponse} and its connection goes
+ * back to the pool once it has been written. The pool is built on first use and shut down by
+ * {@link #close()}, a later request builds a new one, so a restarted server keeps proxying.
+ */
+public class PooledProxyResponseRenderer extends ProxyResponseRenderer implements Closeable, Supplier<Map<String, Object>> {
+
+    // request and response mapping is left to the default renderer, only the client differs
+    private static final Method ADD_REQUEST_HEADERS = declaredMethod("addRequestHeaders", HttpRequest.class, ResponseDefinition.class);
+    private static final Method ADD_BODY_IF_POST_PUT_OR_PATCH = declaredMethod("addBodyIfPostPutOrPatch", HttpRequest.class, ResponseDefinition.class);
+    private static final Method HEADERS_FROM = declaredMethod("headersFrom", HttpResponse.class, ResponseDefinition.class);
+
+    private final ProxySettings proxySettings;
+    private final KeyStoreSettings trustStoreSettings;
+    private final GlobalSettingsHolder globalSettingsHolder;
+    private final ProxyClientSettings proxyClientSettings;
+    private volatile CloseableHttpClient pooledClient;
+    private volatile PoolingHttpClientConnectionManager connectionManager;
+
+    public PooledProxyResponseRenderer(
+            ProxySettings proxySettings,
+            KeyStoreSettings trustStoreSettings,
+            boolean preserveHostHeader,
+            String hostHeaderValue,
+            GlobalSettingsHolder globalSettingsHolder,
+            ProxyClientSettings proxyClientSettings
+    ) {
+        super(proxySettings, trustStoreSettings, preserveHostHeader, hostHeaderValue, globalSettingsHolder);
+        this.proxySettings = proxySettings;
+        this.trustStoreSettings = trustStoreSettings;
+        this.globalSettingsHolder = globalSettingsHolder;
+        this.proxyClientSettings = proxyClientSettings;
+
+        // the client the default renderer builds for itself is never used
+        try {
+            final Object defaultClient = FieldUtils.readField(this, "client", true);
+
+            if (defaultClient instanceof Closeable) {
+                ((Closeable) defaultClient).close();
+            }
+        } catch (IllegalAccessException | IOException e) {
+            throw new IllegalStateException("Unable to close the default proxy client", e);
+        }
+    }
+
+    @Override
+    public Response render(ServeEvent serveEvent) {
+        final ResponseDefinition responseDefinition = serveEvent.getResponseDefinition();
+        final HttpUriRequest httpRequest = getHttpRequestFor(responseDefinition);
+        invoke(ADD_REQUEST_HEADERS, this, httpRequest, responseDefinition);
+
+        final CloseableHttpResponse httpResponse;
+
+        try {
+            invoke(ADD_BODY_IF_POST_PUT_OR_PATCH, null, httpRequest, responseDefinition);
+            httpResponse = client().execute(httpRequest);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        final HttpEntity entity = httpResponse.getEntity();
+
+        try {
+            final GlobalSettings globalSettings = globalSettingsHolder.get();
+            final Response.Builder builder = response()
+                    .status(httpResponse.getStatusLine().getStatusCode())
+                    .headers((HttpHeaders) invoke(HEADERS_FROM, this, httpResponse, responseDefinition))
+                    .fromProxy(true)
+                    .configureDelay(
+                            globalSettings.getFixedDelay(),
+                            globalSettings.getDelayDistribution(),
+                            responseDefinition.getFixedDelayMilliseconds(),
+                            responseDefinition.getDelayDistribution()
+                    )
+                    .chunkedDribbleDelay(responseDefinition.getChunkedDribbleDelay());
+
+            if (!proxyClientSettings.isStreamResponses() || entity == null) {
+                return builder.body(getEntityAsByteArrayAndCloseStream(httpResponse)).build();
+            }
+
+            return new StreamedResponse(builder.build(), entity.getContent(), proxyClientSettings.getJournalBodyLimit());
+        } catch (IOException e) {
+            EntityUtils.consumeQuietly(entity);
+            throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            EntityUtils.consumeQuietly(entity);
+            throw e;
+        }
+    }
+
+    @Override
+    public Map<String, Object> get() {
+        final PoolingHttpClientConnectionManager currentConnectionManager = connectionManager;
+        final Map<String, Object> snapshot = new LinkedHashMap<>();
+
+        if (currentConnectionManager == null) {
+            snapshot.put("leased", 0);
+            snapshot.put("pending", 0);
+            snapshot.put("available", 0);
+            snapshot.put("max", proxyClientSettings.effectiveMaxConnectionsTotal());
+            snapshot.put("maxPerRoute", proxyClientSettings.effectiveMaxConnectionsPerRoute());
+            snapshot.put("routes", 0);
+            return snapshot;
+        }
+
+        final PoolStats totalStats = currentConnectionManager.getTotalStats();
+        snapshot.put("leased", totalStats.getLeased());
+        snapshot.put("pending", totalStats.getPending());
+        snapshot.put("available", totalStats.getAvailable());
+        snapshot.put("max", totalStats.getMax());
+        snapshot.put("maxPerRoute", currentConnectionManager.getDefaultMaxPerRoute());
+        snapshot.put("routes", currentConnectionManager.getRoutes().size());
+        return snapshot;
+    }
+
+    /**
+     * Shuts the pool down and closes its connections.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        final CloseableHttpClient currentClient = pooledClient;
+        pooledClient = null;
+        connectionManager = null;
+
+        if (currentClient != null) {
+            currentClient.close();
+        }
+    }
+
+    private CloseableHttpClient client() {
+        CloseableHttpClient currentClient = pooledClient;
+
+        if (currentClient == null) {
+            synchronized (this) {
+                if (pooledClient == null) {
+                    final PoolingHttpClientConnectionManager newConnectionManager = createConnectionManager(trustStoreSettings, proxyClientSettings);
+                    pooledClient = createClient(newConnectionManager, proxySettings, proxyClientSettings);
+                    connectionManager = newConnectionManager;
+                }
+
+                currentClient = pooledClient;
+            }
+        }
+
+        return currentClient;
+    }
+
+    private static PoolingHttpClientConnectionManager createConnectionManager(KeyStoreSettings trustStoreSettings, ProxyClientSettings proxyClientSettings) {
+        final SSLConnectionSocketFactory sslConnectionSocketFactory = new SSLConnectionSocketFactory(
+                buildSslContext(trustStoreSettings),
+                split(System.getProperty("https.protocols")),
+                split(System.getProperty("https.cipherSuites")),
+                NoopHostnameVerifier.INSTANCE
+        );
+        final long keepAliveMillis = proxyClientSettings.effectiveKeepAliveMillis();
+        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                        .register("https", sslConnectionSocketFactory)
+                        .build(),
+                null,
+                null,
+                null,
+                keepAliveMillis > 0 ? keepAliveMillis : -1L,
+                MILLISECONDS
+        );
+        connectionManager.setMaxTotal(proxyClientSettings.effectiveMaxConnectionsTotal());
+        connectionManager.setDefaultMaxPerRoute(proxyClientSettings.effectiveMaxConnectionsPerRoute());
+        connectionManager.setValidateAfterInactivity(ProxyClientSettings.DEFAULT_VALIDATE_AFTER_INACTIVITY_MILLIS);
+        connectionManager.setDefaultSocketConfig(SocketConfig.custom()
+                .setSoTimeout(proxyClientSettings.effectiveSocketTimeoutMillis())
+                .setTcpNoDelay(true)
+                .build());
+        return connectionManager;
+    }
+
+    private static CloseableHttpClient createClient(PoolingHttpClientConnectionManager connectionManager, ProxySettings proxySettings, ProxyClientSettings proxyClientSettings) {
+        final HttpClientBuilder builder = HttpClientBuilder.create()
+                .disableAuthCaching()
+                .disableAutomaticRetries()
+                .disableCookieManagement()
+                .disableRedirectHandling()
+                .disableContentCompression()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy(keepAliveStrategy(proxyClientSettings))
+                .setConnectionReuseStrategy(proxyClientSettings.isKeepAliveEnabled()
+                        ? DefaultClientConnectionReuseStrategy.INSTANCE
+                        : NoConnectionReuseStrategy.INSTANCE)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(proxyClientSettings.effectiveConnectTimeoutMillis())
+                        .setSocketTimeout(proxyClientSettings.effectiveSocketTimeoutMillis())
+                        .build())
+                .useSystemProperties();
+
+        if (proxyClientSettings.isKeepAliveEnabled()) {
+            builder.evictExpiredConnections().evictIdleConnections(proxyClientSettings.effectiveKeepAliveMillis(), MILLISECONDS);
+        }
+
+        if (proxySettings != null && proxySettings != ProxySettings.NO_PROXY) {
+            builder.setProxy(new HttpHost(proxySettings.host(), proxySettings.port()));
+
+            if (!StringUtils.isEmpty(proxySettings.getUsername()) && !StringUtils.isEmpty(proxySettings.getPassword())) {
+                final BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+                credentialsProvider.setCredentials(
+                        new AuthScope(proxySettings.host(), proxySettings.port()),
+                        new UsernamePasswordCredentials(proxySettings.getUsername(), proxySettings.getPassword())
+                );
+                builder.setProxyAuthenticationStrategy(new ProxyAuthenticationStrategy());
+                builder.setDefaultCredentialsProvider(credentialsProvider);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(final ProxyClientSettings proxyClientSettings) {
+        final long keepAliveMillis = proxyClientSettings.effectiveKeepAliveMillis();
+
+        return new ConnectionKeepAliveStrategy() {
+            @Override
+            public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                final long advised = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                return advised > 0 ? Math.min(advised, keepAliveMillis) : keepAliveMillis;
+            }
+        };
+    }
+
+    private static SSLContext buildSslContext(KeyStoreSettings trustStoreSettings) {
+        // same trust rules as the default proxy client
+        try {
+            final Method method = trustStoreSettings != null && trustStoreSettings != KeyStoreSettings.NO_STORE
+                    ? HttpClientFactory.class.getDeclaredMethod("buildSSLContextWithTrustStore", KeyStoreSettings.class)
+                    : HttpClientFactory.class.getDeclaredMethod("buildAllowAnythingSSLContext");
+            method.setAccessible(true);
+            return (SSLContext) (method.getParameterTypes().length == 0 ? method.invoke(null) : method.invoke(null, trustStoreSettings));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to build the SSL context of the proxy client", e);
+        }
+    }
+
+    private static String[] split(String value) {
+        return StringUtils.isBlank(value) ? null : value.split(" *, *");
+    }
+
+    private static Method declaredMethod(String name, Class<?>... parameterTypes) {
+        try {
+            final Method method = ProxyResponseRenderer.class.getDeclaredMethod(name, parameterTypes);
+            method.setAccessible(true);
+            return method;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Unable to find ProxyResponseRenderer." + name, e);
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object... arguments) {
+        try {
+            return method.invoke(target, arguments);
+        } catch (InvocationTargetException e) {
+            return Exceptions.throwUnchecked(e.getCause(), Object.class);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to call ProxyResponseRenderer." + method.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+
+import com.github.tomakehurst.wiremock.common.InputStreamSource;
+import com.github.tomakehurst.wiremock.http.Response;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Response whose body is piped from an upstream stream while it is written instead of being
+ * read into memory first. {@link #getBody()} only returns a prefix of at most the given
+ * number of bytes, which is what the request journal keeps; the complete body is available
+ * once through {@link #getBodyStream()}, and closing that stream releases the upstream.
+ */
+public class StreamedResponse extends Response {
+
+    private final PrefixedBody prefixedBody;
+
+    public StreamedResponse(Response response, InputStream body, int journalBodyLimit) {
+        this(response, new PrefixedBody(body, journalBodyLimit));
+    }
+
+    private StreamedResponse(Response response, PrefixedBody prefixedBody) {
+        super(
+                response.getStatus(),
+                response.getStatusMessage(),
+                prefixedBody,
+                response.getHeaders(),
+                response.wasConfigured(),
+                response.getFault(),
+                response.getInitialDelay(),
+                response.getChunkedDribbleDelay(),
+                response.isFromProxy()
+        );
+        this.prefixedBody = prefixedBody;
+    }
+
+    @Override
+    public byte[] getBody() {
+        return prefixedBody.prefix();
+    }
+
+    public boolean isTruncated() {
+        return prefixedBody.isTruncated();
+    }
+
+    private static class PrefixedBody implements InputStreamSource {
+
+        private final InputStream body;
+        private final int limit;
+        private byte[] head;
+        private int headLength = -1;
+
+        PrefixedBody(InputStream body, int limit) {
+            this.body = body;
+            this.limit = Math.max(0, limit);
+        }
+
+        synchronized byte[] prefix() {
+            readHead();
+            return Arrays.copyOf(head, Math.min(headLength, limit));
+        }
+
+        synchronized boolean isTruncated() {
+            readHead();
+            return headLength > limit;
+        }
+
+        @Override
+        public synchronized InputStream getStream() {
+            readHead();
+            return new SequenceInputStream(new ByteArrayInputStream(head, 0, headLength), body);
+        }
+
+        private void readHead() {
+            if (headLength >= 0) {
+                return;
+            }
+
+            // one byte beyond the limit tells whether the journaled prefix is truncated
+            head = new byte[limit + 1];
+
+            try {
+                headLength = ByteStreams.read(body, head, 0, head.length);
+            } catch (IOException e) {
+                headLength = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.http;
+
+import java.io.InputStream;
+
+import com.github.ehrlichandreas.wiremock.common.ThrottleSettings;
+import com.github.tomakehurst.wiremock.common.InputStreamSource;
+import com.github.tomakehurst.wiremock.http.Response;
+
+public class ThrottledResponse extends Response {
+
+    private final Response response;
+    private final ThrottleSettings throttleSettings;
+
+    public ThrottledResponse(final Response response, ThrottleSettings throttleSettings) {
+        super(
+                response.getStatus(),
+                response.getStatusMessage(),
+                new InputStreamSource() {
+                    @Override
+                    public InputStream getStream() {
+                        return response.getBodyStream();
+                    }
+                },
+                response.getHeaders(),
+                response.wasConfigured(),
+                response.getFault(),
+                response.getInitialDelay(),
+                response.getChunkedDribbleDelay(),
+                response.isFromProxy()
+        );
+        this.response = response;
+        this.throttleSettings = throttleSettings;
+    }
+
+    @Override
+    public byte[] getBody() {
+        // a streamed body must not be drained by the journal
+        return response.getBody();
+    }
+
+    public ThrottleSettings getThrottleSettings() {
+        return throttleSettings;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.jetty9;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpHeaderValue;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+
+import com.github.ehrlichandreas.wiremock.common.AdmissionControlSettings;
+import com.google.common.base.Supplier;
+
+/**
+ * Sheds stub requests once too many are in flight. Rejected requests are answered with a 503 right away, or their connection is
+ * closed, so an overloaded server degrades by refusing work instead of by queueing it.
+ * Requests handled before reaching this wrapper, i.e. admin calls, are never counted.
+ */
+public class AdmissionControlHandler extends HandlerWrapper implements Supplier<Map<String, Object>> {
+
+    private final AdmissionControlSettings admissionControlSettings;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejectedInFlight = new LongAdder();
+    private final LongAccumulator maxInFlightSeen = new LongAccumulator(Math::max, 0L);
+
+    public AdmissionControlHandler(AdmissionControlSettings admissionControlSettings) {
+        this.admissionControlSettings = admissionControlSettings;
+    }
+
+    @Override
+    public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException {
+        if (baseRequest.isHandled()) {
+            return;
+        }
+
+        // redispatches of suspended requests were admitted already
+        if (baseRequest.getDispatcherType() != DispatcherType.REQUEST) {
+            super.handle(target, baseRequest, request, response);
+            return;
+        }
+
+        final int current = inFlight.incrementAndGet();
+
+        if (current > admissionControlSettings.getMaxInFlight()) {
+            inFlight.decrementAndGet();
+            rejectedInFlight.increment();
+            reject(baseRequest, response);
+            return;
+        }
+
+        admitted.increment();
+        maxInFlightSeen.accumulate(current);
+        boolean releaseNow = true;
+
+        try {
+            super.handle(target, baseRequest, request, response);
+
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingAsyncListener());
+                releaseNow = false;
+            }
+        } finally {
+            if (releaseNow) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> get() {
+        final Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("maxInFlight", admissionControlSettings.getMaxInFlight());
+        snapshot.put("inFlight", inFlight.get());
+        snapshot.put("maxInFlightSeen", maxInFlightSeen.get());
+        snapshot.put("admitted", admitted.sum());
+        snapshot.put("rejectedInFlight", rejectedInFlight.sum());
+        return snapshot;
+    }
+
+    private void reject(Request baseRequest, HttpServletResponse response) throws IOException {
+        baseRequest.setHandled(true);
+
+        if (admissionControlSettings.isCloseConnectionOnRejection()) {
+            baseRequest.getHttpChannel().getEndPoint().close();
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeader.CONNECTION.asString(), HttpHeaderValue.CLOSE.asString());
+        response.setContentLength(0);
+        response.flushBuffer();
+    }
+
+    private class ReleasingAsyncListener implements AsyncListener {
+
+        private boolean released;
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private synchronized void release() {
+            if (!released) {
+                released = true;
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
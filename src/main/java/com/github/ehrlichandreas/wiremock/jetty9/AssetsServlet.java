@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.jetty9;
+
+import org.eclipse.jetty.servlet.DefaultServlet;
+
+import com.google.common.io.Resources;
+
+/**
+ * Serves the admin assets, resolving their location on the classpath only when the servlet
+ * is initialised by its first request instead of while the admin context is set up.
+ */
+public class AssetsServlet extends DefaultServlet {
+
+    private static final long serialVersionUID = 1L;
+    private static final String RESOURCE_BASE = "resourceBase";
+    private static final String ASSETS = "assets";
+
+    @Override
+    public String getInitParameter(String name) {
+        final String value = super.getInitParameter(name);
+
+        if (value == null && RESOURCE_BASE.equals(name)) {
+            return Resources.getResource(ASSETS).toString();
+        }
+
+        return value;
+    }
+}
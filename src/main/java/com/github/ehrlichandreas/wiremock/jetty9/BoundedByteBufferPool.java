@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.jetty9;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.io.ByteBufferPool;
+import org.eclipse.jetty.util.BufferUtil;
+
+import com.github.ehrlichandreas.wiremock.common.ConnectorSettings;
+import com.google.common.base.Supplier;
+
+/**
+ * Buffer pool with fixed size buckets, like Jetty's array pool, but bounded by the bytes it
+ * retains overall. Buffers that would exceed the bound, or are larger than the biggest
+ * bucket, are left to the garbage collector. Direct and heap buffers are kept apart since
+ * callers rely on getting the kind they asked for.
+ */
+public class BoundedByteBufferPool implements ByteBufferPool, Supplier<Map<String, Object>> {
+
+    private final int bucketSize;
+    private final int maxBufferSize;
+    private final long maxRetainedBytes;
+    private final List<Queue<ByteBuffer>> directBuckets;
+    private final List<Queue<ByteBuffer>> heapBuckets;
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder oversized = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+    public BoundedByteBufferPool(ConnectorSettings connectorSettings) {
+        this.bucketSize = connectorSettings.getBufferPoolBucketSize();
+        this.maxBufferSize = connectorSettings.getBufferPoolMaxBufferSize();
+        this.maxRetainedBytes = connectorSettings.getBufferPoolMaxRetainedBytes();
+        this.directBuckets = newBuckets((maxBufferSize + bucketSize - 1) / bucketSize);
+        this.heapBuckets = newBuckets(directBuckets.size());
+    }
+
+    @Override
+    public ByteBuffer acquire(int size, boolean direct) {
+        final int index = (Math.max(1, size) - 1) / bucketSize;
+
+        if (index >= directBuckets.size()) {
+            oversized.increment();
+            return allocate(size, direct);
+        }
+
+        final ByteBuffer buffer = bucketsOf(direct).get(index).poll();
+
+        if (buffer == null) {
+            misses.increment();
+            return allocate((index + 1) * bucketSize, direct);
+        }
+
+        hits.increment();
+        retainedBytes.addAndGet(-buffer.capacity());
+        BufferUtil.clear(buffer);
+        return buffer;
+    }
+
+    @Override
+    public void release(ByteBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+
+        final int capacity = buffer.capacity();
+
+        if (capacity % bucketSize != 0 || capacity > maxBufferSize) {
+            return;
+        }
+
+        if (retainedBytes.addAndGet(capacity) > maxRetainedBytes) {
+            retainedBytes.addAndGet(-capacity);
+            discarded.increment();
+            return;
+        }
+
+        bucketsOf(buffer.isDirect()).get(capacity / bucketSize - 1).offer(buffer);
+    }
+
+    @Override
+    public Map<String, Object> get() {
+        final long hitCount = hits.sum();
+        final long missCount = misses.sum();
+        final Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("retainedBytes", retainedBytes.get());
+        snapshot.put("maxRetainedBytes", maxRetainedBytes);
+        snapshot.put("hits", hitCount);
+        snapshot.put("misses", missCount);
+        snapshot.put("hitRate", hitCount + missCount == 0 ? 0.0D : (double) hitCount / (hitCount + missCount));
+        snapshot.put("oversized", oversized.sum());
+        snapshot.put("discarded", discarded.sum());
+        return snapshot;
+    }
+
+    private List<Queue<ByteBuffer>> bucketsOf(boolean direct) {
+        return direct ? directBuckets : heapBuckets;
+    }
+
+    private static List<Queue<ByteBuffer>> newBuckets(int count) {
+        final List<Queue<ByteBuffer>> buckets = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            buckets.add(new ConcurrentLinkedQueue<>());
+        }
+
+        return buckets;
+    }
+
+    private static ByteBuffer allocate(int capacity, boolean direct) {
+        return direct ? BufferUtil.allocateDirect(capacity) : BufferUtil.allocate(capacity);
+    }
+}
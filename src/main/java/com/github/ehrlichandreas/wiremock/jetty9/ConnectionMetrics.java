@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.jetty9;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.io.NetworkTrafficListener;
+
+import com.github.ehrlichandreas.wiremock.common.LongHistogram;
+import com.google.common.base.Supplier;
+
+/**
+ * Connection level counters fed by the network traffic hook of the connectors. The byte
+ * callbacks only touch striped counters, opening and closing a connection additionally
+ * records its start time to feed the lifetime histogram (milliseconds).
+ */
+public class ConnectionMetrics implements NetworkTrafficListener, Supplier<Map<String, Object>> {
+
+    private static final int RATE_WINDOW_SECONDS = 60;
+
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder closed = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongHistogram lifetimes = new LongHistogram();
+    private final ConcurrentMap<Socket, Long> openedAt = new ConcurrentHashMap<>();
+    private final AtomicLongArray openedPerSecond = new AtomicLongArray(RATE_WINDOW_SECONDS);
+    private final AtomicLongArray openedPerSecondTags = new AtomicLongArray(RATE_WINDOW_SECONDS);
+
+    @Override
+    public void opened(Socket socket) {
+        final long now = System.nanoTime();
+        opened.increment();
+        openedAt.put(socket, now);
+        countOpenedAt(NANOSECONDS.toSeconds(now));
+    }
+
+    @Override
+    public void incoming(Socket socket, ByteBuffer bytes) {
+        bytesIn.add(bytes.remaining());
+    }
+
+    @Override
+    public void outgoing(Socket socket, ByteBuffer bytes) {
+        bytesOut.add(bytes.remaining());
+    }
+
+    @Override
+    public void closed(Socket socket) {
+        closed.increment();
+        final Long start = openedAt.remove(socket);
+
+        if (start != null) {
+            lifetimes.record(NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    @Override
+    public Map<String, Object> get() {
+        final long nowSecond = NANOSECONDS.toSeconds(System.nanoTime());
+        final long openedCount = opened.sum();
+        final long closedCount = closed.sum();
+
+        final Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("open", Math.max(0L, openedCount - closedCount));
+        snapshot.put("opened", openedCount);
+        snapshot.put("closed", closedCount);
+        snapshot.put("connectionsPerSecond", openedIn(nowSecond - 1));
+        snapshot.put("connectionsPerSecondAverage", (double) openedBetween(nowSecond - (RATE_WINDOW_SECONDS - 1), nowSecond - 1) / (RATE_WINDOW_SECONDS - 1));
+        snapshot.put("bytesIn", bytesIn.sum());
+        snapshot.put("bytesOut", bytesOut.sum());
+        snapshot.put("lifetimeMillis", lifetimes.snapshot());
+        return snapshot;
+    }
+
+    private void countOpenedAt(long second) {
+        final int index = (int) Math.floorMod(second, (long) RATE_WINDOW_SECONDS);
+        final long tag = openedPerSecondTags.get(index);
+
+        if (tag != second && openedPerSecondTags.compareAndSet(index, tag, second)) {
+            openedPerSecond.set(index, 0L);
+        }
+
+        openedPerSecond.incrementAndGet(index);
+    }
+
+    private long openedIn(long second) {
+        final int index = (int) Math.floorMod(second, (long) RATE_WINDOW_SECONDS);
+        return openedPerSecondTags.get(index) == second ? openedPerSecond.get(index) : 0L;
+    }
+
+    private long openedBetween(long fromSecond, long toSecond) {
+        long sum = 0;
+
+        for (long second = fromSecond; second <= toSecond; second++) {
+            sum += openedIn(second);
+        }
+
+        return sum;
+    }
+}
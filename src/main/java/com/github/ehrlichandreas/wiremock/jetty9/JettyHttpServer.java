@@ -18,17 +18,23 @@ package com.github.ehrlichandreas.wiremock.jetty9;
 
 import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
 import static com.github.tomakehurst.wiremock.core.WireMockApp.ADMIN_CONTEXT_ROOT;
-import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 import java.lang.reflect.Method;
 import java.net.Socket;
 import java.nio.ByteBuffer;
 import java.util.EnumSet;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
 import javax.servlet.DispatcherType;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.eclipse.jetty.http.MimeTypes;
+import org.eclipse.jetty.io.ByteBufferPool;
 import org.eclipse.jetty.io.NetworkTrafficListener;
 import org.eclipse.jetty.server.ConnectionFactory;
 import org.eclipse.jetty.server.Handler;
@@ -39,6 +45,7 @@ import org.eclipse.jetty.server.SecureRequestCustomizer;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.server.SslConnectionFactory;
+import org.eclipse.jetty.server.handler.ContextHandlerCollection;
 import org.eclipse.jetty.server.handler.HandlerCollection;
 import org.eclipse.jetty.server.handler.HandlerWrapper;
 import org.eclipse.jetty.servlet.DefaultServlet;
@@ -46,7 +53,23 @@ import org.eclipse.jetty.servlet.FilterHolder;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
 import org.eclipse.jetty.servlets.CrossOriginFilter;
-
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
+import com.github.ehrlichandreas.wiremock.common.AdminConnectorSettings;
+import com.github.ehrlichandreas.wiremock.common.AdminContextLoading;
+import com.github.ehrlichandreas.wiremock.common.AdmissionControlSettings;
+import com.github.ehrlichandreas.wiremock.common.CompressedBodyCache;
+import com.github.ehrlichandreas.wiremock.common.ConnectorSettings;
+import com.github.ehrlichandreas.wiremock.common.GzipSettings;
+import com.github.ehrlichandreas.wiremock.common.MetricsRegistry;
+import com.github.ehrlichandreas.wiremock.common.StaticResourceCacheSettings;
+import com.github.ehrlichandreas.wiremock.common.ThrottleSettings;
+import com.github.ehrlichandreas.wiremock.core.WireMockConfiguration;
+import com.github.ehrlichandreas.wiremock.http.HttpServer;
+import com.github.ehrlichandreas.wiremock.servlet.StaticResourceCacheFilter;
+import com.github.ehrlichandreas.wiremock.servlet.WireMockHandlerDispatchingServlet;
 import com.github.tomakehurst.wiremock.common.AsynchronousResponseSettings;
 import com.github.tomakehurst.wiremock.common.FileSource;
 import com.github.tomakehurst.wiremock.common.HttpsSettings;
@@ -55,21 +78,20 @@ import com.github.tomakehurst.wiremock.common.Notifier;
 import com.github.tomakehurst.wiremock.core.Options;
 import com.github.tomakehurst.wiremock.core.WireMockApp;
 import com.github.tomakehurst.wiremock.http.AdminRequestHandler;
-import com.github.tomakehurst.wiremock.http.HttpServer;
 import com.github.tomakehurst.wiremock.http.RequestHandler;
 import com.github.tomakehurst.wiremock.http.StubRequestHandler;
+import com.github.tomakehurst.wiremock.http.ThreadPoolFactory;
 import com.github.tomakehurst.wiremock.http.trafficlistener.WiremockNetworkTrafficListener;
 import com.github.tomakehurst.wiremock.jetty9.CustomizedSslContextFactory;
 import com.github.tomakehurst.wiremock.jetty9.JettyFaultInjectorFactory;
-import com.github.tomakehurst.wiremock.jetty9.NotFoundHandler;
 import com.github.tomakehurst.wiremock.servlet.ContentTypeSettingFilter;
 import com.github.tomakehurst.wiremock.servlet.FaultInjectorFactory;
 import com.github.tomakehurst.wiremock.servlet.TrailingSlashFilter;
-import com.github.tomakehurst.wiremock.servlet.WireMockHandlerDispatchingServlet;
-import com.google.common.base.Function;
 import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Resources;
+import com.google.common.util.concurrent.MoreExecutors;
 
 public class JettyHttpServer implements HttpServer {
     private static final String DEFAULT_MOCK_SERVICE_CONTEXT_PATH = "/";
@@ -77,6 +99,9 @@ public class JettyHttpServer implements HttpServer {
     private String rootContext = com.github.ehrlichandreas.wiremock.core.Options.DEFAULT_ROOT_CONTEXT;
     private static final String FILES_URL_MATCH = String.format("/%s/*", WireMockApp.FILES_ROOT);
     private static final String[] GZIPPABLE_METHODS = new String[] { "POST", "PUT", "PATCH", "DELETE" };
+    private static final long START_TIMEOUT_SECONDS = 30L;
+    private static final String MOCK_CONNECTOR_NAME = "mock";
+    private static final String ADMIN_CONNECTOR_NAME = "admin";
 
     static {
         System.setProperty("org.eclipse.jetty.server.HttpChannelState.DEFAULT_TIMEOUT", "300000");
@@ -85,6 +110,12 @@ public class JettyHttpServer implements HttpServer {
     private final Server jettyServer;
     private final ServerConnector httpConnector;
     private final ServerConnector httpsConnector;
+    private final ServerConnector adminConnector;
+    private final ByteBufferPool byteBufferPool;
+    private final ConnectionMetrics connectionMetrics = new ConnectionMetrics();
+    private final com.github.ehrlichandreas.wiremock.core.Options wireMockOptions;
+    private final ContextHandlerCollection mockServiceContexts = new ContextHandlerCollection();
+    private final HandlerCollection tenantAdminContexts = new HandlerCollection(true);
 
     public JettyHttpServer(
             Options options,
@@ -92,12 +123,18 @@ public class JettyHttpServer implements HttpServer {
             StubRequestHandler stubRequestHandler
     ) {
         if (options instanceof com.github.ehrlichandreas.wiremock.core.Options) {
-            rootContext = ((com.github.ehrlichandreas.wiremock.core.Options)options).rootContext();
+            wireMockOptions = (com.github.ehrlichandreas.wiremock.core.Options) options;
+        } else {
+            wireMockOptions = WireMockConfiguration.from(options);
         }
 
+        rootContext = wireMockOptions.rootContext();
+        wireMockOptions.metricsRegistry().register("connections", connectionMetrics);
+
         jettyServer = createServer(options);
+        byteBufferPool = createByteBufferPool(wireMockOptions.getConnectorSettings());
 
-        NetworkTrafficListenerAdapter networkTrafficListenerAdapter = new NetworkTrafficListenerAdapter(options.networkTrafficListener());
+        NetworkTrafficListenerAdapter networkTrafficListenerAdapter = new NetworkTrafficListenerAdapter(options.networkTrafficListener(), connectionMetrics);
         httpConnector = createHttpConnector(
                 options.bindAddress(),
                 options.portNumber(),
@@ -117,6 +154,23 @@ public class JettyHttpServer implements HttpServer {
             httpsConnector = null;
         }
 
+        AdminConnectorSettings adminConnectorSettings = wireMockOptions.getAdminConnectorSettings();
+        if (adminConnectorSettings.isEnabled()) {
+            adminConnector = createAdminConnector(
+                    options.bindAddress(),
+                    adminConnectorSettings,
+                    options.jettySettings(),
+                    networkTrafficListenerAdapter);
+            jettyServer.addConnector(adminConnector);
+            httpConnector.setName(MOCK_CONNECTOR_NAME);
+
+            if (httpsConnector != null) {
+                httpsConnector.setName(MOCK_CONNECTOR_NAME);
+            }
+        } else {
+            adminConnector = null;
+        }
+
         jettyServer.setHandler(createHandler(options, adminRequestHandler, stubRequestHandler));
 
         finalizeSetup(options);
@@ -124,26 +178,110 @@ public class JettyHttpServer implements HttpServer {
 
     protected HandlerCollection createHandler(Options options, AdminRequestHandler adminRequestHandler, StubRequestHandler stubRequestHandler) {
         Notifier notifier = options.notifier();
-        ServletContextHandler adminContext = addAdminContext(
+        Handler adminContext = addAdminContext(
+                adminContextPath(rootContext),
                 adminRequestHandler,
-                notifier
+                notifier,
+                wireMockOptions.getAdminContextLoading()
         );
         ServletContextHandler mockServiceContext = addMockServiceContext(
+                mockServiceContextPath(rootContext),
                 stubRequestHandler,
                 options.filesRoot(),
                 options.getAsynchronousResponseSettings(),
-                notifier
+                wireMockOptions.getStaticResourceCacheSettings(),
+                wireMockOptions.getGzipSettings(),
+                wireMockOptions.getThrottleSettings(),
+                notifier,
+                wireMockOptions.metricsRegistry()
         );
+        // tenants mounted later are matched by their context path ahead of the catch-all mock context
+        mockServiceContexts.addHandler(mockServiceContext);
 
         HandlerCollection handlers = new HandlerCollection();
-        handlers.setHandlers(ArrayUtils.addAll(extensionHandlers(), adminContext));
+        handlers.setHandlers(ArrayUtils.addAll(extensionHandlers(), adminContext, tenantAdminContexts));
 
-        addGZipHandler(mockServiceContext, handlers);
+        addGZipHandler(addAdmissionControl(mockServiceContexts, wireMockOptions.getAdmissionControlSettings()), handlers, wireMockOptions.getGzipSettings());
 
         return handlers;
     }
 
-    private void addGZipHandler(ServletContextHandler mockServiceContext, HandlerCollection handlers) {
+    /**
+     * Hosts another WireMock instance on this server under its own root context. The tenant
+     * keeps its own stubs, journal and files but shares the connectors, thread pool and timer
+     * of this server; its admin API lives below {@code <rootContext>/__admin}. The returned
+     * server mounts the tenant when started and unmounts it when stopped.
+     */
+    public HttpServer createTenant(Options options, AdminRequestHandler adminRequestHandler, StubRequestHandler stubRequestHandler) {
+        final com.github.ehrlichandreas.wiremock.core.Options tenantOptions = options instanceof com.github.ehrlichandreas.wiremock.core.Options
+                ? (com.github.ehrlichandreas.wiremock.core.Options) options
+                : WireMockConfiguration.from(options);
+        final String tenantRootContext = tenantOptions.rootContext() == null ? "" : tenantOptions.rootContext().trim();
+
+        if (tenantRootContext.isEmpty() || tenantRootContext.equals(DEFAULT_MOCK_SERVICE_CONTEXT_PATH)) {
+            throw new IllegalArgumentException("A tenant needs a root context of its own");
+        }
+
+        final Handler tenantAdminContext = addAdminContext(
+                adminContextPath(tenantRootContext),
+                adminRequestHandler,
+                tenantOptions.notifier(),
+                tenantOptions.getAdminContextLoading()
+        );
+        final ServletContextHandler tenantMockServiceContext = addMockServiceContext(
+                mockServiceContextPath(tenantRootContext),
+                stubRequestHandler,
+                tenantOptions.filesRoot(),
+                tenantOptions.getAsynchronousResponseSettings(),
+                tenantOptions.getStaticResourceCacheSettings(),
+                tenantOptions.getGzipSettings(),
+                tenantOptions.getThrottleSettings(),
+                tenantOptions.notifier(),
+                tenantOptions.metricsRegistry()
+        );
+
+        return new JettyTenantHttpServer(this, tenantMockServiceContext, tenantAdminContext);
+    }
+
+    synchronized void mountTenant(Handler tenantMockServiceContext, Handler tenantAdminContext) throws Exception {
+        mockServiceContexts.addHandler(tenantMockServiceContext);
+        tenantAdminContexts.addHandler(tenantAdminContext);
+
+        if (jettyServer.isStarted()) {
+            tenantAdminContext.start();
+            tenantMockServiceContext.start();
+        }
+    }
+
+    synchronized void unmountTenant(Handler tenantMockServiceContext, Handler tenantAdminContext) throws Exception {
+        mockServiceContexts.removeHandler(tenantMockServiceContext);
+        tenantAdminContexts.removeHandler(tenantAdminContext);
+        tenantMockServiceContext.stop();
+        tenantAdminContext.stop();
+    }
+
+    private static String mockServiceContextPath(String rootContext) {
+        final String fixedRootContext = rootContext == null ? com.github.ehrlichandreas.wiremock.core.Options.DEFAULT_ROOT_CONTEXT : rootContext.trim();
+        return fixedRootContext.isEmpty() ? DEFAULT_MOCK_SERVICE_CONTEXT_PATH : fixedRootContext;
+    }
+
+    private static String adminContextPath(String rootContext) {
+        final String fixedRootContext = rootContext == null ? com.github.ehrlichandreas.wiremock.core.Options.DEFAULT_ROOT_CONTEXT : rootContext.trim();
+        return fixedRootContext.isEmpty() ? DEFAULT_ADMIN_SERVICE_CONTEXT_PATH : fixedRootContext + DEFAULT_ADMIN_SERVICE_CONTEXT_PATH;
+    }
+
+    private Handler addAdmissionControl(Handler mockServiceHandler, AdmissionControlSettings admissionControlSettings) {
+        if (!admissionControlSettings.isEnabled()) {
+            return mockServiceHandler;
+        }
+
+        AdmissionControlHandler admissionControlHandler = new AdmissionControlHandler(admissionControlSettings);
+        admissionControlHandler.setHandler(mockServiceHandler);
+        wireMockOptions.metricsRegistry().register("admissionControl", admissionControlHandler);
+        return admissionControlHandler;
+    }
+
+    private void addGZipHandler(Handler mockServiceHandler, HandlerCollection handlers, GzipSettings gzipSettings) {
         Class<?> gzipHandlerClass = null;
 
         try {
@@ -159,7 +297,8 @@ public class JettyHttpServer implements HttpServer {
         try {
             HandlerWrapper gzipWrapper = (HandlerWrapper) gzipHandlerClass.newInstance();
             setGZippableMethods(gzipWrapper, gzipHandlerClass);
-            gzipWrapper.setHandler(mockServiceContext);
+            setGzipSettings(gzipWrapper, gzipHandlerClass, gzipSettings);
+            gzipWrapper.setHandler(mockServiceHandler);
             handlers.addHandler(gzipWrapper);
         } catch (Exception e) {
             throwUnchecked(e);
@@ -173,6 +312,24 @@ public class JettyHttpServer implements HttpServer {
         } catch (Exception ignored) {}
     }
 
+    private static void setGzipSettings(HandlerWrapper gzipHandler, Class<?> gzipHandlerClass, GzipSettings gzipSettings) {
+        invokeIfPresent(gzipHandler, gzipHandlerClass, "setMinGzipSize", int.class, gzipSettings.getMinGzipSize());
+        invokeIfPresent(gzipHandler, gzipHandlerClass, "setCompressionLevel", int.class, gzipSettings.getCompressionLevel());
+        invokeIfPresent(gzipHandler, gzipHandlerClass, "setDeflaterPoolCapacity", int.class, gzipSettings.getDeflaterPoolSize());
+
+        if (!gzipSettings.getMimeTypes().isEmpty()) {
+            final String[] mimeTypes = gzipSettings.getMimeTypes().toArray(new String[]{});
+            invokeIfPresent(gzipHandler, gzipHandlerClass, "addIncludedMimeTypes", String[].class, mimeTypes);
+        }
+    }
+
+    private static void invokeIfPresent(Object target, Class<?> targetClass, String name, Class<?> parameterType, Object argument) {
+        try {
+            Method method = targetClass.getMethod(name, parameterType);
+            method.invoke(target, new Object[] { argument });
+        } catch (Exception ignored) {}
+    }
+
     protected void finalizeSetup(Options options) {
         if(!options.jettySettings().getStopTimeout().isPresent()) {
             jettyServer.setStopTimeout(0);
@@ -180,7 +337,11 @@ public class JettyHttpServer implements HttpServer {
     }
 
     protected Server createServer(Options options) {
-        final Server server = new Server(options.threadPoolFactory().buildThreadPool(options));
+        final ThreadPoolFactory threadPoolFactory = options.threadPoolFactory();
+        final Server server = new Server(threadPoolFactory.buildThreadPool(options));
+        if (threadPoolFactory instanceof SharedThreadPoolFactory) {
+            ((SharedThreadPoolFactory) threadPoolFactory).bind(server, options);
+        }
         final JettySettings jettySettings = options.jettySettings();
         final Optional<Long> stopTimeout = jettySettings.getStopTimeout();
         if(stopTimeout.isPresent()) {
@@ -199,28 +360,69 @@ public class JettyHttpServer implements HttpServer {
     @Override
     public void start() {
         try {
-            jettyServer.start();
-        } catch (Exception e) {
+            startAsync(MoreExecutors.directExecutor()).get(START_TIMEOUT_SECONDS, SECONDS);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Server took too long to start up.", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new RuntimeException(e);
         }
-        long timeout = System.currentTimeMillis() + 30000;
-        while (!jettyServer.isStarted()) {
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                // no-op
+    }
+
+    @Override
+    public CompletableFuture<Void> startAsync(Executor executor) {
+        if (jettyServer.isStarted()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        final CompletableFuture<Void> started = new CompletableFuture<>();
+        final LifeCycle.Listener listener = new AbstractLifeCycle.AbstractLifeCycleListener() {
+            @Override
+            public void lifeCycleStarted(LifeCycle event) {
+                started.complete(null);
             }
-            if (System.currentTimeMillis() > timeout) {
-                throw new RuntimeException("Server took too long to start up.");
+
+            @Override
+            public void lifeCycleFailure(LifeCycle event, Throwable cause) {
+                started.completeExceptionally(cause);
             }
+        };
+        jettyServer.addLifeCycleListener(listener);
+
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        jettyServer.start();
+                    } catch (Exception e) {
+                        started.completeExceptionally(e);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            started.completeExceptionally(e);
         }
+
+        return started.whenComplete(new BiConsumer<Void, Throwable>() {
+            @Override
+            public void accept(Void result, Throwable throwable) {
+                jettyServer.removeLifeCycleListener(listener);
+            }
+        });
     }
 
     @Override
     public void stop() {
         try {
             jettyServer.stop();
-            jettyServer.join();
+
+            // joining waits for the thread pool to terminate, which a shared pool only does after its last server
+            if (jettyServer.isManaged(jettyServer.getThreadPool())) {
+                jettyServer.join();
+            }
         } catch (Exception e) {
             throwUnchecked(e);
         }
@@ -241,6 +443,14 @@ public class JettyHttpServer implements HttpServer {
         return httpsConnector.getLocalPort();
     }
 
+    public int adminPort() {
+        return adminConnector == null ? port() : adminConnector.getLocalPort();
+    }
+
+    public ConnectionMetrics connectionMetrics() {
+        return connectionMetrics;
+    }
+
     protected long stopTimeout() {
         return jettyServer.getStopTimeout();
     }
@@ -273,14 +483,8 @@ public class JettyHttpServer implements HttpServer {
         //Added to support Android https communication.
         CustomizedSslContextFactory sslContextFactory = new CustomizedSslContextFactory();
 
-        sslContextFactory.setKeyStorePath(httpsSettings.keyStorePath());
-        sslContextFactory.setKeyManagerPassword(httpsSettings.keyStorePassword());
-        sslContextFactory.setKeyStoreType(httpsSettings.keyStoreType());
-        if (httpsSettings.hasTrustStore()) {
-            sslContextFactory.setTrustStorePath(httpsSettings.trustStorePath());
-            sslContextFactory.setTrustStorePassword(httpsSettings.trustStorePassword());
-            sslContextFactory.setTrustStoreType(httpsSettings.trustStoreType());
-        }
+        // key and trust stores are loaded once and shared by all servers with the same settings
+        sslContextFactory.setSslContext(SslContextCache.sslContextFor(httpsSettings, wireMockOptions.getTlsSettings()));
         sslContextFactory.setNeedClientAuth(httpsSettings.needClientAuth());
 
         HttpConfiguration httpConfig = createHttpConfig(jettySettings);
@@ -301,15 +505,68 @@ public class JettyHttpServer implements HttpServer {
         );
     }
 
+    /**
+     * Admin calls get their own connector running on a small pool of their own, so they are
+     * neither queued behind stub traffic nor starved of threads by it.
+     */
+    protected ServerConnector createAdminConnector(
+            String bindAddress,
+            AdminConnectorSettings adminConnectorSettings,
+            JettySettings jettySettings,
+            NetworkTrafficListener listener) {
+
+        // one acceptor and one selector on top of the request threads
+        QueuedThreadPool adminThreadPool = new QueuedThreadPool(adminConnectorSettings.getThreads() + 2, 3);
+        adminThreadPool.setName("wiremock-admin");
+
+        NetworkTrafficServerConnector connector = new NetworkTrafficServerConnector(
+                jettyServer,
+                adminThreadPool,
+                null,
+                byteBufferPool,
+                1,
+                1,
+                new HttpConnectionFactory(createHttpConfig(jettySettings))
+        );
+        connector.setName(ADMIN_CONNECTOR_NAME);
+        connector.setPort(adminConnectorSettings.getPort());
+        setConnectorSettings(wireMockOptions.getConnectorSettings(), connector);
+        connector.setStopTimeout(0);
+        connector.getSelectorManager().setStopTimeout(0);
+        connector.addNetworkTrafficListener(listener);
+        connector.setHost(bindAddress);
+
+        return connector;
+    }
+
     protected HttpConfiguration createHttpConfig(JettySettings jettySettings) {
         HttpConfiguration httpConfig = new HttpConfiguration();
         httpConfig.setRequestHeaderSize(
                 jettySettings.getRequestHeaderSize().or(8192)
         );
         httpConfig.setSendDateHeader(false);
+
+        ConnectorSettings connectorSettings = wireMockOptions.getConnectorSettings();
+        if (connectorSettings.getOutputBufferSize() >= 0) {
+            httpConfig.setOutputBufferSize(connectorSettings.getOutputBufferSize());
+        }
+        if (connectorSettings.getOutputAggregationSize() >= 0) {
+            httpConfig.setOutputAggregationSize(connectorSettings.getOutputAggregationSize());
+        }
+
         return httpConfig;
     }
 
+    private ByteBufferPool createByteBufferPool(ConnectorSettings connectorSettings) {
+        if (!connectorSettings.isBufferPoolEnabled()) {
+            return null;
+        }
+
+        BoundedByteBufferPool boundedByteBufferPool = new BoundedByteBufferPool(connectorSettings);
+        wireMockOptions.metricsRegistry().register("bufferPool", boundedByteBufferPool);
+        return boundedByteBufferPool;
+    }
+
     protected ServerConnector createServerConnector(String bindAddress,
                                                   JettySettings jettySettings,
                                                   int port, NetworkTrafficListener listener,
@@ -319,7 +576,7 @@ public class JettyHttpServer implements HttpServer {
                 jettyServer,
                 null,
                 null,
-                null,
+                byteBufferPool,
                 acceptors,
                 2,
                 connectionFactories
@@ -332,12 +589,19 @@ public class JettyHttpServer implements HttpServer {
         connector.addNetworkTrafficListener(listener);
 
         setJettySettings(jettySettings, connector);
+        setConnectorSettings(wireMockOptions.getConnectorSettings(), connector);
 
         connector.setHost(bindAddress);
 
         return connector;
     }
 
+    private static void setConnectorSettings(ConnectorSettings connectorSettings, ServerConnector connector) {
+        if (connectorSettings.getIdleTimeoutMillis() >= 0) {
+            connector.setIdleTimeout(connectorSettings.getIdleTimeoutMillis());
+        }
+    }
+
     private void setJettySettings(JettySettings jettySettings, ServerConnector connector) {
         if (jettySettings.getAcceptQueueSize().isPresent()) {
             connector.setAcceptQueueSize(jettySettings.getAcceptQueueSize().get());
@@ -346,27 +610,24 @@ public class JettyHttpServer implements HttpServer {
 
     @SuppressWarnings({"rawtypes", "unchecked"})
     private ServletContextHandler addMockServiceContext(
+            String contextPath,
             StubRequestHandler stubRequestHandler,
             FileSource fileSource,
             AsynchronousResponseSettings asynchronousResponseSettings,
-            Notifier notifier
+            StaticResourceCacheSettings staticResourceCacheSettings,
+            GzipSettings gzipSettings,
+            ThrottleSettings throttleSettings,
+            Notifier notifier,
+            MetricsRegistry metricsRegistry
     ) {
-        String rootContext = Optional.fromNullable(this.rootContext)
-                .transform(new Function<Object, String>() {
-                    @Override
-                    public String apply(Object input) {
-                        return String.valueOf(input);
-                    }
-                })
-                .or(com.github.ehrlichandreas.wiremock.core.Options.DEFAULT_ROOT_CONTEXT).trim();
-        String contextPath = DEFAULT_MOCK_SERVICE_CONTEXT_PATH;
+        ServletContextHandler mockServiceContext = new ServletContextHandler();
+        mockServiceContext.setContextPath(contextPath);
 
-        if (!rootContext.isEmpty()) {
-            contextPath = rootContext;
+        if (adminConnector != null) {
+            // the admin connector serves the admin context only
+            mockServiceContext.setVirtualHosts(new String[] { "@" + MOCK_CONNECTOR_NAME });
         }
 
-        ServletContextHandler mockServiceContext = new ServletContextHandler(jettyServer, contextPath);
-
         mockServiceContext.setInitParameter("org.eclipse.jetty.servlet.Default.maxCacheSize", "0");
         mockServiceContext.setInitParameter("org.eclipse.jetty.servlet.Default.resourceBase", fileSource.getPath());
         mockServiceContext.setInitParameter("org.eclipse.jetty.servlet.Default.dirAllowed", "false");
@@ -376,15 +637,21 @@ public class JettyHttpServer implements HttpServer {
         mockServiceContext.setAttribute(JettyFaultInjectorFactory.class.getName(), new JettyFaultInjectorFactory());
         mockServiceContext.setAttribute(StubRequestHandler.class.getName(), stubRequestHandler);
         mockServiceContext.setAttribute(Notifier.KEY, notifier);
+        mockServiceContext.setAttribute(GzipSettings.class.getName(), gzipSettings);
+
+        if (gzipSettings.isCompressedBodyCacheEnabled()) {
+            CompressedBodyCache compressedBodyCache = new CompressedBodyCache(gzipSettings);
+            mockServiceContext.setAttribute(CompressedBodyCache.class.getName(), compressedBodyCache);
+            metricsRegistry.register("compressedBodies", compressedBodyCache);
+        }
+
         ServletHolder servletHolder = mockServiceContext.addServlet(WireMockHandlerDispatchingServlet.class, "/");
         servletHolder.setInitParameter(RequestHandler.HANDLER_CLASS_KEY, StubRequestHandler.class.getName());
         servletHolder.setInitParameter(FaultInjectorFactory.INJECTOR_CLASS_KEY, JettyFaultInjectorFactory.class.getName());
         servletHolder.setInitParameter(WireMockHandlerDispatchingServlet.SHOULD_FORWARD_TO_FILES_CONTEXT, "true");
 
-        if (asynchronousResponseSettings.isEnabled()) {
-            ScheduledExecutorService scheduledExecutorService = newScheduledThreadPool(asynchronousResponseSettings.getThreads());
-            mockServiceContext.setAttribute(WireMockHandlerDispatchingServlet.ASYNCHRONOUS_RESPONSE_EXECUTOR, scheduledExecutorService);
-        }
+        SharedTimerBinding.bind(mockServiceContext, asynchronousResponseSettings, metricsRegistry);
+        mockServiceContext.setAttribute(ThrottleSettings.class.getName(), throttleSettings);
 
         MimeTypes mimeTypes = new MimeTypes();
         mimeTypes.addMimeMapping("json", "application/json");
@@ -399,29 +666,49 @@ public class JettyHttpServer implements HttpServer {
         mockServiceContext.addFilter(ContentTypeSettingFilter.class, FILES_URL_MATCH, EnumSet.of(DispatcherType.FORWARD));
         mockServiceContext.addFilter(TrailingSlashFilter.class, FILES_URL_MATCH, EnumSet.allOf(DispatcherType.class));
 
+        if (staticResourceCacheSettings.isEnabled()) {
+            StaticResourceCacheFilter staticResourceCacheFilter = new StaticResourceCacheFilter(fileSource, staticResourceCacheSettings);
+            mockServiceContext.addFilter(new FilterHolder(staticResourceCacheFilter), FILES_URL_MATCH, EnumSet.of(DispatcherType.REQUEST, DispatcherType.FORWARD));
+            metricsRegistry.register("staticResources", staticResourceCacheFilter);
+        }
+
         return mockServiceContext;
     }
 
-    private ServletContextHandler addAdminContext(
+    private Handler addAdminContext(
+            String contextPath,
+            final AdminRequestHandler adminRequestHandler,
+            final Notifier notifier,
+            AdminContextLoading adminContextLoading
+    ) {
+        if (adminContextLoading == AdminContextLoading.LAZY) {
+            final String lazyContextPath = contextPath;
+            return new LazyContextHandler(contextPath, new Supplier<ServletContextHandler>() {
+                @Override
+                public ServletContextHandler get() {
+                    // built on demand, e.g. for a not found page, so the assets stay unresolved as well
+                    return createAdminContext(lazyContextPath, adminRequestHandler, notifier, AdminContextLoading.LAZY_ASSETS);
+                }
+            });
+        }
+
+        return createAdminContext(contextPath, adminRequestHandler, notifier, adminContextLoading);
+    }
+
+    private ServletContextHandler createAdminContext(
+            String contextPath,
             AdminRequestHandler adminRequestHandler,
-            Notifier notifier
+            Notifier notifier,
+            AdminContextLoading adminContextLoading
     ) {
-        String rootContext = Optional.fromNullable(this.rootContext)
-                .transform(new Function<Object, String>() {
-                    @Override
-                    public String apply(Object input) {
-                        return String.valueOf(input);
-                    }
-                })
-                .or(com.github.ehrlichandreas.wiremock.core.Options.DEFAULT_ROOT_CONTEXT).trim();
-        String contextPath = DEFAULT_ADMIN_SERVICE_CONTEXT_PATH;
+        ServletContextHandler adminContext = new ServletContextHandler();
+        adminContext.setContextPath(contextPath);
 
-        if (!rootContext.isEmpty()) {
-            contextPath = rootContext + DEFAULT_ADMIN_SERVICE_CONTEXT_PATH;
+        if (adminConnector != null) {
+            // listing the mock connector as well keeps the admin context visible to the not found handler
+            adminContext.setVirtualHosts(new String[] { "@" + MOCK_CONNECTOR_NAME, "@" + ADMIN_CONNECTOR_NAME });
         }
 
-        ServletContextHandler adminContext = new ServletContextHandler(jettyServer, contextPath);
-
         adminContext.setInitParameter("org.eclipse.jetty.servlet.Default.maxCacheSize", "0");
 
         String javaVendor = System.getProperty("java.vendor");
@@ -431,15 +718,17 @@ public class JettyHttpServer implements HttpServer {
             //  Furthermore, lib assets will be merged into a single asset directory when a jar file is assimilated into an apk.
             //  As resources can be addressed like "assets/swagger-ui/index.html", a static path element will suffice.
             adminContext.setInitParameter("org.eclipse.jetty.servlet.Default.resourceBase", "assets");
-        } else {
+        } else if (adminContextLoading == AdminContextLoading.EAGER) {
             adminContext.setInitParameter("org.eclipse.jetty.servlet.Default.resourceBase", Resources.getResource("assets").toString());
         }
 
-        Resources.getResource("assets/swagger-ui/index.html");
+        if (adminContextLoading == AdminContextLoading.EAGER) {
+            Resources.getResource("assets/swagger-ui/index.html");
+        }
 
         adminContext.setInitParameter("org.eclipse.jetty.servlet.Default.dirAllowed", "false");
-        adminContext.addServlet(DefaultServlet.class, "/swagger-ui/*");
-        adminContext.addServlet(DefaultServlet.class, "/recorder/*");
+        adminContext.addServlet(AssetsServlet.class, "/swagger-ui/*");
+        adminContext.addServlet(AssetsServlet.class, "/recorder/*");
 
         ServletHolder servletHolder = adminContext.addServlet(WireMockHandlerDispatchingServlet.class, "/");
         servletHolder.setInitParameter(RequestHandler.HANDLER_CLASS_KEY, AdminRequestHandler.class.getName());
@@ -460,28 +749,34 @@ public class JettyHttpServer implements HttpServer {
 
     private static class NetworkTrafficListenerAdapter implements NetworkTrafficListener {
         private final WiremockNetworkTrafficListener wiremockNetworkTrafficListener;
+        private final ConnectionMetrics connectionMetrics;
 
-        NetworkTrafficListenerAdapter(WiremockNetworkTrafficListener wiremockNetworkTrafficListener) {
+        NetworkTrafficListenerAdapter(WiremockNetworkTrafficListener wiremockNetworkTrafficListener, ConnectionMetrics connectionMetrics) {
             this.wiremockNetworkTrafficListener = wiremockNetworkTrafficListener;
+            this.connectionMetrics = connectionMetrics;
         }
 
         @Override
         public void opened(Socket socket) {
+            connectionMetrics.opened(socket);
             wiremockNetworkTrafficListener.opened(socket);
         }
 
         @Override
         public void incoming(Socket socket, ByteBuffer bytes) {
+            connectionMetrics.incoming(socket, bytes);
             wiremockNetworkTrafficListener.incoming(socket, bytes);
         }
 
         @Override
         public void outgoing(Socket socket, ByteBuffer bytes) {
+            connectionMetrics.outgoing(socket, bytes);
             wiremockNetworkTrafficListener.outgoing(socket, bytes);
         }
 
         @Override
         public void closed(Socket socket) {
+            connectionMetrics.closed(socket);
             wiremockNetworkTrafficListener.closed(socket);
         }
     }
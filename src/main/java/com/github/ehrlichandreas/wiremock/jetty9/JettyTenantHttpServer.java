@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.jetty9;
+
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.eclipse.jetty.server.Handler;
+
+import com.github.ehrlichandreas.wiremock.http.HttpServer;
+
+/**
+ * A WireMock instance mounted on a {@link JettyHttpServer} owned by someone else. Starting
+ * and stopping only adds and removes its contexts; the host's connectors stay untouched.
+ */
+public class JettyTenantHttpServer implements HttpServer {
+
+    private final JettyHttpServer host;
+    private final Handler mockServiceContext;
+    private final Handler adminContext;
+    private volatile boolean running;
+
+    JettyTenantHttpServer(JettyHttpServer host, Handler mockServiceContext, Handler adminContext) {
+        this.host = host;
+        this.mockServiceContext = mockServiceContext;
+        this.adminContext = adminContext;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        try {
+            host.mountTenant(mockServiceContext, adminContext);
+            running = true;
+        } catch (Exception e) {
+            throwUnchecked(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> startAsync(Executor executor) {
+        return CompletableFuture.runAsync(new Runnable() {
+            @Override
+            public void run() {
+                start();
+            }
+        }, executor);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+
+        try {
+            host.unmountTenant(mockServiceContext, adminContext);
+        } catch (Exception e) {
+            throwUnchecked(e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running && host.isRunning();
+    }
+
+    @Override
+    public int port() {
+        return host.port();
+    }
+
+    @Override
+    public int httpsPort() {
+        return host.httpsPort();
+    }
+
+    public JettyHttpServer host() {
+        return host;
+    }
+}
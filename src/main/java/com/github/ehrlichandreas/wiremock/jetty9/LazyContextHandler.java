@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.jetty9;
+
+import java.io.IOException;
+import java.util.List;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.AbstractHandlerContainer;
+import org.eclipse.jetty.server.handler.ContextHandler;
+
+import com.google.common.base.Supplier;
+
+/**
+ * Stands in for a context handler until the first request below its context path arrives,
+ * then builds, starts and delegates to the real one. The built context is managed by this
+ * handler, so it follows the lifecycle of the server from then on. Until then the context is
+ * invisible to lookups like {@link javax.servlet.ServletContext#getContext(String)}, callers
+ * depending on those have to {@link #initialize()} it first.
+ */
+public class LazyContextHandler extends AbstractHandlerContainer {
+
+    private final String contextPath;
+    private final Supplier<? extends ContextHandler> contextHandlerSupplier;
+    private volatile ContextHandler contextHandler;
+
+    public LazyContextHandler(String contextPath, Supplier<? extends ContextHandler> contextHandlerSupplier) {
+        this.contextPath = contextPath;
+        this.contextHandlerSupplier = contextHandlerSupplier;
+    }
+
+    @Override
+    public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException {
+        if (baseRequest.isHandled() || !isBelowContextPath(target)) {
+            return;
+        }
+
+        getContextHandler().handle(target, baseRequest, request, response);
+    }
+
+    @Override
+    public Handler[] getHandlers() {
+        final ContextHandler existingContextHandler = contextHandler;
+        return existingContextHandler == null ? new Handler[0] : new Handler[] { existingContextHandler };
+    }
+
+    @Override
+    protected void expandChildren(List<Handler> list, Class<?> byClass) {
+        final ContextHandler existingContextHandler = contextHandler;
+
+        if (existingContextHandler != null) {
+            expandHandler(existingContextHandler, list, byClass);
+        }
+    }
+
+    public String getContextPath() {
+        return contextPath;
+    }
+
+    public boolean isInitialized() {
+        return contextHandler != null;
+    }
+
+    public void initialize() throws ServletException {
+        getContextHandler();
+    }
+
+    boolean isBelowContextPath(String target) {
+        return target != null
+                && target.startsWith(contextPath)
+                && (target.length() == contextPath.length() || target.charAt(contextPath.length()) == '/');
+    }
+
+    private ContextHandler getContextHandler() throws ServletException {
+        ContextHandler existingContextHandler = contextHandler;
+
+        if (existingContextHandler != null) {
+            return existingContextHandler;
+        }
+
+        synchronized (this) {
+            if (contextHandler == null) {
+                final ContextHandler newContextHandler = contextHandlerSupplier.get();
+                newContextHandler.setServer(getServer());
+
+                try {
+                    addManaged(newContextHandler);
+                } catch (RuntimeException e) {
+                    removeBean(newContextHandler);
+                    throw new ServletException("Could not start context " + contextPath, e);
+                }
+
+                contextHandler = newContextHandler;
+            }
+
+            return contextHandler;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.jetty9;
+
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
+import static com.github.tomakehurst.wiremock.core.WireMockApp.ADMIN_CONTEXT_ROOT;
+
+import java.io.IOException;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+
+/**
+ * Renders unmatched requests through the admin context like the upstream handler. Only the
+ * lazily loaded admin context the upstream lookup of {@code /__admin} resolves to is built
+ * first; other lazy contexts, such as the admin contexts of tenants, stay unbuilt.
+ */
+public class NotFoundHandler extends com.github.tomakehurst.wiremock.jetty9.NotFoundHandler {
+
+    @Override
+    public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (response.getStatus() == 404 && getServer() != null) {
+            final LazyContextHandler lazyAdminContext = lazyAdminContext();
+
+            if (lazyAdminContext != null && !lazyAdminContext.isInitialized()) {
+                try {
+                    lazyAdminContext.initialize();
+                } catch (ServletException e) {
+                    throwUnchecked(e);
+                }
+            }
+        }
+
+        super.handle(target, baseRequest, request, response);
+    }
+
+    private LazyContextHandler lazyAdminContext() {
+        LazyContextHandler lazyAdminContext = null;
+
+        // the upstream lookup picks the context with the longest path the admin root is below
+        for (Handler handler : getServer().getChildHandlersByClass(LazyContextHandler.class)) {
+            final LazyContextHandler lazyContextHandler = (LazyContextHandler) handler;
+
+            if (lazyContextHandler.isBelowContextPath(ADMIN_CONTEXT_ROOT)
+                    && (lazyAdminContext == null || lazyContextHandler.getContextPath().length() > lazyAdminContext.getContextPath().length())) {
+                lazyAdminContext = lazyContextHandler;
+            }
+        }
+
+        return lazyAdminContext;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.jetty9;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import com.github.tomakehurst.wiremock.core.Options;
+import com.github.tomakehurst.wiremock.http.ThreadPoolFactory;
+
+/**
+ * Hands the same thread pool to every server built with it. The pool is not managed by the
+ * Jetty servers using it; instead each server holds a lease on it while it runs. The first
+ * lease starts the pool and the last one stops it again, so the pool lives exactly as long
+ * as one of its servers does. Each running server grows the pool only by the threads its
+ * acceptors and selectors occupy for good plus a small share of workers, instead of bringing
+ * a pool of its own, and gives them back when it stops.
+ */
+public class SharedThreadPoolFactory implements ThreadPoolFactory {
+
+    private static final int MIN_THREADS = 4;
+    private static final int SELECTORS_PER_CONNECTOR = 2;
+    private static final int WORKERS_PER_SERVER = 2;
+
+    private final QueuedThreadPool threadPool;
+    private int leases;
+
+    public SharedThreadPoolFactory(int workerThreads) {
+        this.threadPool = new QueuedThreadPool(Math.max(MIN_THREADS, workerThreads), MIN_THREADS);
+        this.threadPool.setName("wiremock-shared");
+        this.threadPool.setDaemon(true);
+    }
+
+    @Override
+    public ThreadPool buildThreadPool(Options options) {
+        return threadPool;
+    }
+
+    /**
+     * Lets the given server, built on this factory's pool, lease the pool while it runs. The
+     * lease is taken when the server starts, ahead of Jetty checking the pool has enough
+     * threads for its connectors, and returned when the server stops or fails.
+     */
+    public void bind(Server server, Options options) {
+        server.unmanage(threadPool);
+        server.addLifeCycleListener(new Lease(threadsPerServer(options)));
+    }
+
+    private synchronized void acquire(int threads) {
+        if (leases++ == 0) {
+            try {
+                threadPool.start();
+            } catch (Exception e) {
+                leases--;
+                throw new IllegalStateException("Unable to start the shared thread pool", e);
+            }
+        }
+
+        threadPool.setMaxThreads(threadPool.getMaxThreads() + threads);
+    }
+
+    private synchronized void release(int threads) {
+        threadPool.setMaxThreads(threadPool.getMaxThreads() - threads);
+
+        if (--leases == 0) {
+            try {
+                threadPool.stop();
+            } catch (Exception e) {
+                throw new IllegalStateException("Unable to stop the shared thread pool", e);
+            }
+        }
+    }
+
+    private static int threadsPerServer(Options options) {
+        int connectors = 1;
+
+        if (options.httpsSettings().enabled()) {
+            connectors++;
+        }
+
+        return connectors * (options.jettySettings().getAcceptors().or(2) + SELECTORS_PER_CONNECTOR) + WORKERS_PER_SERVER;
+    }
+
+    private class Lease extends AbstractLifeCycle.AbstractLifeCycleListener {
+
+        private final int threads;
+        private boolean held;
+
+        private Lease(int threads) {
+            this.threads = threads;
+        }
+
+        @Override
+        public synchronized void lifeCycleStarting(LifeCycle event) {
+            if (!held) {
+                acquire(threads);
+                held = true;
+            }
+        }
+
+        @Override
+        public void lifeCycleFailure(LifeCycle event, Throwable cause) {
+            giveBack();
+        }
+
+        @Override
+        public void lifeCycleStopped(LifeCycle event) {
+            giveBack();
+        }
+
+        private synchronized void giveBack() {
+            if (held) {
+                held = false;
+                release(threads);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.jetty9;
+
+import java.util.Map;
+
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.component.LifeCycle;
+
+import com.github.ehrlichandreas.wiremock.common.HashedWheelTimer;
+import com.github.ehrlichandreas.wiremock.common.MetricsRegistry;
+import com.github.ehrlichandreas.wiremock.common.SharedTimer;
+import com.github.ehrlichandreas.wiremock.servlet.WireMockHandlerDispatchingServlet;
+import com.github.tomakehurst.wiremock.common.AsynchronousResponseSettings;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Holds a reference to the {@link SharedTimer} while a mock service context runs. The timer
+ * is acquired and published to the context's attributes when the context starts, ahead of
+ * the servlet picking it up, and released when the context stops, so every start of a
+ * restarted server gets a live timer and acquires and releases stay balanced.
+ */
+class SharedTimerBinding extends AbstractLifeCycle.AbstractLifeCycleListener {
+
+    private final ServletContextHandler context;
+    private final AsynchronousResponseSettings asynchronousResponseSettings;
+    private HashedWheelTimer timer;
+
+    private SharedTimerBinding(ServletContextHandler context, AsynchronousResponseSettings asynchronousResponseSettings) {
+        this.context = context;
+        this.asynchronousResponseSettings = asynchronousResponseSettings;
+    }
+
+    static void bind(ServletContextHandler context, AsynchronousResponseSettings asynchronousResponseSettings, MetricsRegistry metricsRegistry) {
+        final SharedTimerBinding binding = new SharedTimerBinding(context, asynchronousResponseSettings);
+        context.addLifeCycleListener(binding);
+        metricsRegistry.register("scheduler", new Supplier<Map<String, Object>>() {
+            @Override
+            public Map<String, Object> get() {
+                final HashedWheelTimer timer = binding.timer();
+                return ImmutableMap.<String, Object>of("pendingTimeouts", timer == null ? 0 : timer.pendingTimeouts());
+            }
+        });
+    }
+
+    @Override
+    public synchronized void lifeCycleStarting(LifeCycle event) {
+        if (timer != null) {
+            return;
+        }
+
+        timer = SharedTimer.acquire(asynchronousResponseSettings.getThreads());
+
+        // throttled bodies are always written from the shared timer, asynchronous delays only on demand
+        context.setAttribute(HashedWheelTimer.class.getName(), timer);
+
+        if (asynchronousResponseSettings.isEnabled()) {
+            context.setAttribute(WireMockHandlerDispatchingServlet.ASYNCHRONOUS_RESPONSE_EXECUTOR, timer);
+        }
+    }
+
+    @Override
+    public void lifeCycleFailure(LifeCycle event, Throwable cause) {
+        release();
+    }
+
+    @Override
+    public void lifeCycleStopped(LifeCycle event) {
+        release();
+    }
+
+    private synchronized HashedWheelTimer timer() {
+        return timer;
+    }
+
+    private synchronized void release() {
+        if (timer == null) {
+            return;
+        }
+
+        context.removeAttribute(HashedWheelTimer.class.getName());
+        context.removeAttribute(WireMockHandlerDispatchingServlet.ASYNCHRONOUS_RESPONSE_EXECUTOR);
+        timer = null;
+        SharedTimer.release();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.jetty9;
+
+import java.security.Provider;
+import java.security.Security;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+
+import com.github.ehrlichandreas.wiremock.common.TlsSettings;
+import com.github.tomakehurst.wiremock.common.HttpsSettings;
+import com.github.tomakehurst.wiremock.jetty9.CustomizedSslContextFactory;
+
+/**
+ * Loads the key and trust stores once per distinct configuration and hands the resulting
+ * {@link SSLContext} to every server using it. Servers still get their own context factory,
+ * so stopping one of them does not affect the others, and they share the server session
+ * cache, which lets clients resume sessions instead of doing full handshakes.
+ */
+public class SslContextCache {
+
+    private static final String CONSCRYPT = "Conscrypt";
+    private static final String CONSCRYPT_CLASS = "org.conscrypt.Conscrypt";
+
+    private static final ConcurrentMap<List<Object>, SSLContext> SSL_CONTEXTS = new ConcurrentHashMap<>();
+
+    private SslContextCache() {
+    }
+
+    public static SSLContext sslContextFor(HttpsSettings httpsSettings, TlsSettings tlsSettings) {
+        final List<Object> key = Arrays.<Object>asList(
+                httpsSettings.keyStorePath(),
+                httpsSettings.keyStorePassword(),
+                httpsSettings.keyStoreType(),
+                httpsSettings.trustStorePath(),
+                httpsSettings.trustStorePassword(),
+                httpsSettings.trustStoreType(),
+                tlsSettings.getSessionCacheSize(),
+                tlsSettings.getSessionTimeoutSeconds(),
+                tlsSettings.getProvider()
+        );
+
+        SSLContext sslContext = SSL_CONTEXTS.get(key);
+
+        if (sslContext == null) {
+            final SSLContext loadedSslContext = load(httpsSettings, tlsSettings);
+            sslContext = SSL_CONTEXTS.putIfAbsent(key, loadedSslContext);
+
+            if (sslContext == null) {
+                sslContext = loadedSslContext;
+            }
+        }
+
+        return sslContext;
+    }
+
+    public static void clear() {
+        SSL_CONTEXTS.clear();
+    }
+
+    private static SSLContext load(HttpsSettings httpsSettings, TlsSettings tlsSettings) {
+        final CustomizedSslContextFactory sslContextFactory = new CustomizedSslContextFactory();
+
+        sslContextFactory.setKeyStorePath(httpsSettings.keyStorePath());
+        sslContextFactory.setKeyManagerPassword(httpsSettings.keyStorePassword());
+        sslContextFactory.setKeyStoreType(httpsSettings.keyStoreType());
+        if (httpsSettings.hasTrustStore()) {
+            sslContextFactory.setTrustStorePath(httpsSettings.trustStorePath());
+            sslContextFactory.setTrustStorePassword(httpsSettings.trustStorePassword());
+            sslContextFactory.setTrustStoreType(httpsSettings.trustStoreType());
+        }
+
+        final String provider = availableProvider(tlsSettings.getProvider());
+        if (provider != null) {
+            sslContextFactory.setProvider(provider);
+        }
+
+        final SSLContext sslContext;
+
+        try {
+            sslContextFactory.start();
+            sslContext = sslContextFactory.getSslContext();
+            sslContextFactory.stop();
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not load the SSL context for " + httpsSettings.keyStorePath(), e);
+        }
+
+        final SSLSessionContext serverSessionContext = sslContext.getServerSessionContext();
+        if (serverSessionContext != null) {
+            if (tlsSettings.getSessionCacheSize() >= 0) {
+                serverSessionContext.setSessionCacheSize(tlsSettings.getSessionCacheSize());
+            }
+            if (tlsSettings.getSessionTimeoutSeconds() >= 0) {
+                serverSessionContext.setSessionTimeout(tlsSettings.getSessionTimeoutSeconds());
+            }
+        }
+
+        return sslContext;
+    }
+
+    /**
+     * Registers Conscrypt when it is asked for and on the classpath. Providers that cannot be
+     * found leave the JVM default in place.
+     */
+    private static synchronized String availableProvider(String provider) {
+        if (provider == null || provider.trim().isEmpty()) {
+            return null;
+        }
+
+        if (Security.getProvider(provider) != null) {
+            return provider;
+        }
+
+        if (CONSCRYPT.equalsIgnoreCase(provider)) {
+            try {
+                final Provider conscrypt = (Provider) Class.forName(CONSCRYPT_CLASS).getMethod("newProvider").invoke(null);
+                Security.addProvider(conscrypt);
+                return conscrypt.getName();
+            } catch (ReflectiveOperationException | LinkageError ignored) {
+                return null;
+            }
+        }
+
+        return null;
+    }
+}
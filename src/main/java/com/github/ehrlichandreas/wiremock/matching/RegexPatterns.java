@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.matching;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+
+import com.github.tomakehurst.wiremock.common.Exceptions;
+import com.github.tomakehurst.wiremock.matching.AbstractRegexPattern;
+import com.github.tomakehurst.wiremock.matching.ContentPattern;
+import com.github.tomakehurst.wiremock.matching.MultiValuePattern;
+import com.github.tomakehurst.wiremock.matching.RegexPattern;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.matching.StringValuePattern;
+import com.github.tomakehurst.wiremock.matching.UrlPattern;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Process wide cache of the regexes of stub request patterns. Every regex pattern compiles
+ * its own {@link Pattern} when it is built, so thousands of stubs sharing a URL or header
+ * regex keep thousands of equal automata. Stubs entering the stub store have theirs swapped
+ * for one shared instance per source and flags, and equal {@code matches} patterns are
+ * replaced by one shared {@link RegexPattern}. The shared patterns are of the same classes as
+ * the ones they replace, so stubs compare and serialize exactly as before. Entries are only
+ * weakly held and go away with the last stub using them.
+ */
+public final class RegexPatterns {
+
+    private static final Cache<PatternKey, Pattern> COMPILED = CacheBuilder.newBuilder().weakValues().build();
+    private static final Cache<String, StringValuePattern> MATCHES = CacheBuilder.newBuilder().weakValues().build();
+
+    private RegexPatterns() {
+    }
+
+    public static Pattern compile(final String regex, final int flags) {
+        return get(COMPILED, new PatternKey(regex, flags), new Callable<Pattern>() {
+            @Override
+            public Pattern call() {
+                return Pattern.compile(regex, flags);
+            }
+        });
+    }
+
+    /**
+     * Swaps the regex patterns of the request pattern, in place, for shared ones.
+     */
+    public static void share(RequestPattern requestPattern) {
+        if (requestPattern == null) {
+            return;
+        }
+
+        final UrlPattern urlPattern = requestPattern.getUrlMatcher();
+
+        if (urlPattern != null) {
+            final StringValuePattern sharedUrlPattern = share(urlPattern.getPattern());
+
+            if (sharedUrlPattern != urlPattern.getPattern()) {
+                writeField(urlPattern, "pattern", sharedUrlPattern);
+            }
+        }
+
+        share(requestPattern.getHeaders());
+        share(requestPattern.getQueryParameters());
+
+        if (requestPattern.getCookies() != null) {
+            for (StringValuePattern cookiePattern : requestPattern.getCookies().values()) {
+                shareCompiled(cookiePattern);
+            }
+        }
+
+        if (requestPattern.getBodyPatterns() != null) {
+            for (ContentPattern<?> bodyPattern : requestPattern.getBodyPatterns()) {
+                shareCompiled(bodyPattern);
+            }
+        }
+    }
+
+    /**
+     * The shared equivalent of the given pattern: a cached instance for {@code matches}
+     * regexes, otherwise the pattern itself with its regex swapped for the cached one.
+     */
+    public static StringValuePattern share(final StringValuePattern stringValuePattern) {
+        if (stringValuePattern == null || stringValuePattern.getClass() != RegexPattern.class) {
+            shareCompiled(stringValuePattern);
+            return stringValuePattern;
+        }
+
+        final String regex = ((RegexPattern) stringValuePattern).getMatches();
+        return get(MATCHES, regex, new Callable<StringValuePattern>() {
+            @Override
+            public StringValuePattern call() {
+                shareCompiled(stringValuePattern);
+                return stringValuePattern;
+            }
+        });
+    }
+
+    private static void share(Map<String, MultiValuePattern> multiValuePatterns) {
+        if (multiValuePatterns == null) {
+            return;
+        }
+
+        for (MultiValuePattern multiValuePattern : multiValuePatterns.values()) {
+            if (multiValuePattern == null) {
+                continue;
+            }
+
+            final StringValuePattern sharedValuePattern = share(multiValuePattern.getValuePattern());
+
+            if (sharedValuePattern != multiValuePattern.getValuePattern()) {
+                writeField(multiValuePattern, "valuePattern", sharedValuePattern);
+            }
+        }
+    }
+
+    private static void shareCompiled(ContentPattern<?> contentPattern) {
+        if (!(contentPattern instanceof AbstractRegexPattern)) {
+            return;
+        }
+
+        final Pattern pattern = (Pattern) readField(contentPattern, "pattern");
+        final Pattern sharedPattern = compile(pattern.pattern(), pattern.flags());
+
+        if (sharedPattern != pattern) {
+            writeField(contentPattern, "pattern", sharedPattern);
+        }
+    }
+
+    private static <K, V> V get(Cache<K, V> cache, K key, Callable<V> loader) {
+        try {
+            return cache.get(key, loader);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException("Unable to share the regex pattern", e.getCause());
+        }
+    }
+
+    private static Object readField(Object target, String fieldName) {
+        try {
+            return FieldUtils.readField(target, fieldName, true);
+        } catch (IllegalAccessException e) {
+            return Exceptions.throwUnchecked(e, Object.class);
+        }
+    }
+
+    private static void writeField(Object target, String fieldName, Object value) {
+        try {
+            FieldUtils.writeField(target, fieldName, value, true);
+        } catch (IllegalAccessException e) {
+            Exceptions.throwUnchecked(e);
+        }
+    }
+
+    private static final class PatternKey {
+
+        private final String regex;
+        private final int flags;
+
+        private PatternKey(String regex, int flags) {
+            this.regex = regex;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof PatternKey)) {
+                return false;
+            }
+
+            final PatternKey that = (PatternKey) o;
+            return flags == that.flags && regex.equals(that.regex);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * regex.hashCode() + flags;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.servlet;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+
+/**
+ * Lets a response that keeps writing after the servlet returned (e.g. a dribbled body) take
+ * over completion of the asynchronous request, the {@code complete()} call of the dispatching
+ * servlet is ignored once the completion has been deferred.
+ */
+class DeferredCompletionRequest extends HttpServletRequestWrapper {
+
+    private DeferredAsyncContext asyncContext;
+
+    DeferredCompletionRequest(HttpServletRequest request) {
+        super(request);
+    }
+
+    @Override
+    public AsyncContext startAsync() {
+        asyncContext = new DeferredAsyncContext(super.startAsync());
+        return asyncContext;
+    }
+
+    @Override
+    public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse) {
+        asyncContext = new DeferredAsyncContext(super.startAsync(servletRequest, servletResponse));
+        return asyncContext;
+    }
+
+    /**
+     * @return the asynchronous context the caller now has to complete, started if needed
+     */
+    AsyncContext deferCompletion() {
+        if (asyncContext == null) {
+            return super.startAsync();
+        }
+
+        asyncContext.deferred = true;
+        return asyncContext.delegate;
+    }
+
+    private static class DeferredAsyncContext implements AsyncContext {
+        private final AsyncContext delegate;
+        private volatile boolean deferred;
+
+        DeferredAsyncContext(AsyncContext delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void complete() {
+            if (!deferred) {
+                delegate.complete();
+            }
+        }
+
+        @Override
+        public ServletRequest getRequest() {
+            return delegate.getRequest();
+        }
+
+        @Override
+        public ServletResponse getResponse() {
+            return delegate.getResponse();
+        }
+
+        @Override
+        public boolean hasOriginalRequestAndResponse() {
+            return delegate.hasOriginalRequestAndResponse();
+        }
+
+        @Override
+        public void dispatch() {
+            delegate.dispatch();
+        }
+
+        @Override
+        public void dispatch(String path) {
+            delegate.dispatch(path);
+        }
+
+        @Override
+        public void dispatch(ServletContext context, String path) {
+            delegate.dispatch(context, path);
+        }
+
+        @Override
+        public void start(Runnable run) {
+            delegate.start(run);
+        }
+
+        @Override
+        public void addListener(AsyncListener listener) {
+            delegate.addListener(listener);
+        }
+
+        @Override
+        public void addListener(AsyncListener listener, ServletRequest servletRequest, ServletResponse servletResponse) {
+            delegate.addListener(listener, servletRequest, servletResponse);
+        }
+
+        @Override
+        public <T extends AsyncListener> T createListener(Class<T> clazz) throws javax.servlet.ServletException {
+            return delegate.createListener(clazz);
+        }
+
+        @Override
+        public void setTimeout(long timeout) {
+            delegate.setTimeout(timeout);
+        }
+
+        @Override
+        public long getTimeout() {
+            return delegate.getTimeout();
+        }
+    }
+}
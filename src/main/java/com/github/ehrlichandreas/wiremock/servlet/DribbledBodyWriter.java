@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.servlet;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+/**
+ * Writes the chunks of a dribbled body through the non-blocking servlet output, one chunk per
+ * interval. A chunk falls due on the scheduler and is written once the output is ready, so a
+ * slow client never holds a scheduler worker.
+ */
+class DribbledBodyWriter implements WriteListener {
+
+    private final AsyncContext asyncContext;
+    private final ServletOutputStream outputStream;
+    private final byte[][] chunks;
+    private final long chunkInterval;
+    private final ScheduledExecutorService scheduler;
+    private boolean due = true;
+    private boolean completed;
+    private int index;
+
+    DribbledBodyWriter(AsyncContext asyncContext, ServletOutputStream outputStream, byte[][] chunks, long chunkInterval, ScheduledExecutorService scheduler) {
+        this.asyncContext = asyncContext;
+        this.outputStream = outputStream;
+        this.chunks = chunks;
+        this.chunkInterval = chunkInterval;
+        this.scheduler = scheduler;
+    }
+
+    void start() {
+        try {
+            outputStream.setWriteListener(this);
+        } catch (RuntimeException e) {
+            complete();
+        }
+    }
+
+    @Override
+    public synchronized void onWritePossible() throws IOException {
+        if (!due || completed || !outputStream.isReady()) {
+            return;
+        }
+
+        if (index >= chunks.length) {
+            complete();
+            return;
+        }
+
+        due = false;
+        outputStream.write(chunks[index++]);
+
+        if (outputStream.isReady()) {
+            outputStream.flush();
+        }
+
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    fallDue();
+                }
+            }, chunkInterval, MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            complete();
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        complete();
+    }
+
+    private synchronized void fallDue() {
+        due = true;
+
+        try {
+            onWritePossible();
+        } catch (IOException | RuntimeException e) {
+            complete();
+        }
+    }
+
+    private synchronized void complete() {
+        if (!completed) {
+            completed = true;
+            asyncContext.complete();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.servlet;
+
+import static com.github.tomakehurst.wiremock.core.WireMockApp.FILES_ROOT;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.github.ehrlichandreas.wiremock.common.Gzip;
+import com.github.ehrlichandreas.wiremock.common.StaticResourceCacheSettings;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.net.HttpHeaders;
+
+/**
+ * Serves files below {@code __files} from memory. Entries are weighed by their raw and
+ * gzipped size and evicted least recently used first, anything the cache can not answer
+ * (directories, missing or oversized files) is passed on to the {@code DefaultServlet}. That a
+ * file is missing or oversized is only remembered for a few seconds, so files added later get
+ * cached. Each encoding of a file has an ETag of its own.
+ */
+public class StaticResourceCacheFilter implements Filter, Supplier<Map<String, Object>> {
+
+    private static final long UNCACHEABLE_SECONDS = 5;
+    private static final long MAX_UNCACHEABLE_PATHS = 10000;
+
+    private final FileSource filesSource;
+    private final StaticResourceCacheSettings settings;
+    private final Cache<String, CachedResource> cache;
+    private final Cache<String, Boolean> uncacheable;
+    private ServletContext servletContext;
+
+    public StaticResourceCacheFilter(FileSource fileSource, StaticResourceCacheSettings settings) {
+        this.filesSource = fileSource.child(FILES_ROOT);
+        this.settings = settings;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(settings.getMaxBytes())
+                .weigher(new Weigher<String, CachedResource>() {
+                    @Override
+                    public int weigh(String key, CachedResource value) {
+                        return value.weight();
+                    }
+                })
+                .recordStats()
+                .build();
+        this.uncacheable = CacheBuilder.newBuilder()
+                .maximumSize(MAX_UNCACHEABLE_PATHS)
+                .expireAfterWrite(UNCACHEABLE_SECONDS, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+        servletContext = filterConfig.getServletContext();
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        final HttpServletRequest httpServletRequest = (HttpServletRequest) request;
+        final HttpServletResponse httpServletResponse = (HttpServletResponse) response;
+        final String method = httpServletRequest.getMethod();
+        final String path = httpServletRequest.getPathInfo();
+
+        if (!("GET".equals(method) || "HEAD".equals(method)) || path == null || path.endsWith("/")) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        final Optional<CachedResource> resource = lookup(path);
+
+        if (!resource.isPresent()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        serve(resource.get(), httpServletRequest, httpServletResponse);
+    }
+
+    @Override
+    public void destroy() {
+        cache.invalidateAll();
+        uncacheable.invalidateAll();
+    }
+
+    @Override
+    public Map<String, Object> get() {
+        final CacheStats stats = cache.stats();
+        final Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("entries", cache.size());
+        snapshot.put("hits", stats.hitCount());
+        snapshot.put("misses", stats.missCount());
+        snapshot.put("evictions", stats.evictionCount());
+        return snapshot;
+    }
+
+    private Optional<CachedResource> lookup(String path) {
+        final CachedResource cached = cache.getIfPresent(path);
+
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        if (uncacheable.getIfPresent(path) != null) {
+            return Optional.absent();
+        }
+
+        final Optional<CachedResource> loaded = load(path);
+
+        if (loaded.isPresent()) {
+            cache.put(path, loaded.get());
+        } else {
+            uncacheable.put(path, Boolean.TRUE);
+        }
+
+        return loaded;
+    }
+
+    private Optional<CachedResource> load(String path) {
+        final byte[] body;
+
+        try (InputStream stream = filesSource.getBinaryFileNamed(path.substring(1)).getStream()) {
+            // oversized files are read no further than the limit, DefaultServlet streams them
+            body = ByteStreams.toByteArray(ByteStreams.limit(stream, settings.getMaxFileSize()));
+
+            if (stream.read() >= 0) {
+                return Optional.absent();
+            }
+        } catch (Exception e) {
+            // missing files surface as IOExceptions thrown unchecked, without being declared
+            return Optional.absent();
+        }
+
+        final String hash = Hashing.sha256().hashBytes(body).toString();
+        final String contentType = servletContext == null ? null : servletContext.getMimeType(path);
+        final byte[] gzipBody = settings.isGzipEnabled() ? gzip(body) : null;
+
+        return Optional.of(new CachedResource(body, gzipBody, '"' + hash + '"', '"' + hash + "-gzip\"", contentType));
+    }
+
+    private static void serve(CachedResource resource, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        final boolean gzip = resource.gzipBody != null && Gzip.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        final String etag = gzip ? resource.gzipEtag : resource.etag;
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+
+        if (resource.gzipBody != null) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        if (response.getContentType() == null && resource.contentType != null) {
+            response.setContentType(resource.contentType);
+        }
+
+        byte[] body = resource.body;
+
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, Gzip.GZIP);
+            body = resource.gzipBody;
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentLength(body.length);
+
+        if (!"HEAD".equals(request.getMethod())) {
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            final String fixedCandidate = candidate.trim();
+
+            if ("*".equals(fixedCandidate) || etag.equals(fixedCandidate)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static byte[] gzip(byte[] body) {
+        final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+
+        try {
+            final byte[] gzipBody = Gzip.gzip(body, deflater);
+            return gzipBody.length < body.length ? gzipBody : null;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static class CachedResource {
+        private final byte[] body;
+        private final byte[] gzipBody;
+        private final String etag;
+        private final String gzipEtag;
+        private final String contentType;
+
+        CachedResource(byte[] body, byte[] gzipBody, String etag, String gzipEtag, String contentType) {
+            this.body = body;
+            this.gzipBody = gzipBody;
+            this.etag = etag;
+            this.gzipEtag = gzipEtag;
+            this.contentType = contentType;
+        }
+
+        int weight() {
+            return body.length + (gzipBody == null ? 0 : gzipBody.length);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.servlet;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import com.github.ehrlichandreas.wiremock.common.ThrottleSettings;
+import com.github.ehrlichandreas.wiremock.common.TokenBucket;
+
+/**
+ * Writes a body through the non-blocking servlet output. Whenever the token bucket runs dry
+ * the writer parks itself on the scheduler instead of a thread, so any number of throttled
+ * responses share the few scheduler workers. Whatever is buffered is flushed before parking,
+ * so the client sees the bytes at the pace they were released.
+ */
+class ThrottledBodyWriter implements WriteListener {
+
+    private static final int MIN_CHUNK_SIZE = 512;
+    private static final int MAX_CHUNK_SIZE = 64 * 1024;
+    private static final int CHUNKS_PER_SECOND = 10;
+
+    private final AsyncContext asyncContext;
+    private final ServletOutputStream outputStream;
+    private final byte[] body;
+    private final ScheduledExecutorService scheduler;
+    private final TokenBucket tokenBucket;
+    private final int chunkSize;
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private int position;
+
+    ThrottledBodyWriter(AsyncContext asyncContext, ServletOutputStream outputStream, byte[] body, ThrottleSettings throttleSettings, ScheduledExecutorService scheduler) {
+        this.asyncContext = asyncContext;
+        this.outputStream = outputStream;
+        this.body = body == null ? new byte[0] : body;
+        this.scheduler = scheduler;
+
+        if (throttleSettings.isBandwidthLimited()) {
+            final long bytesPerSecond = throttleSettings.getBytesPerSecond();
+            this.chunkSize = (int) Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, bytesPerSecond / CHUNKS_PER_SECOND));
+            this.tokenBucket = new TokenBucket(bytesPerSecond, chunkSize);
+        } else {
+            this.chunkSize = Math.max(1, this.body.length);
+            this.tokenBucket = null;
+        }
+    }
+
+    void start() {
+        try {
+            outputStream.setWriteListener(this);
+        } catch (RuntimeException e) {
+            complete();
+        }
+    }
+
+    @Override
+    public void onWritePossible() throws IOException {
+        while (outputStream.isReady()) {
+            if (position >= body.length) {
+                complete();
+                return;
+            }
+
+            final int wanted = Math.min(chunkSize, body.length - position);
+            final int length = tokenBucket == null ? wanted : (int) tokenBucket.take(wanted);
+
+            if (length == 0) {
+                outputStream.flush();
+                resumeAfter(tokenBucket.nanosUntilAvailable(wanted));
+                return;
+            }
+
+            outputStream.write(body, position, length);
+            position += length;
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        complete();
+    }
+
+    private void resumeAfter(long nanos) {
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        onWritePossible();
+                    } catch (IOException | RuntimeException e) {
+                        complete();
+                    }
+                }
+            }, Math.max(1L, nanos), NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            complete();
+        }
+    }
+
+    private void complete() {
+        if (completed.compareAndSet(false, true)) {
+            asyncContext.complete();
+        }
+    }
+}
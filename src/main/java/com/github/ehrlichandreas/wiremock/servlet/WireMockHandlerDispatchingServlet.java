@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.servlet;
+
+import static com.google.common.net.HttpHeaders.ACCEPT_ENCODING;
+import static com.google.common.net.HttpHeaders.CONTENT_ENCODING;
+import static com.google.common.net.HttpHeaders.CONTENT_LENGTH;
+import static com.google.common.net.HttpHeaders.TRANSFER_ENCODING;
+import static com.google.common.net.HttpHeaders.VARY;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.github.ehrlichandreas.wiremock.common.CompressedBodyCache;
+import com.github.ehrlichandreas.wiremock.common.Gzip;
+import com.github.ehrlichandreas.wiremock.common.GzipSettings;
+import com.github.ehrlichandreas.wiremock.common.HashedWheelTimer;
+import com.github.ehrlichandreas.wiremock.common.ThrottleSettings;
+import com.github.ehrlichandreas.wiremock.http.ThrottledResponse;
+import com.github.tomakehurst.wiremock.common.Exceptions;
+import com.github.tomakehurst.wiremock.http.ChunkedDribbleDelay;
+import com.github.tomakehurst.wiremock.http.ContentTypeHeader;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.Response;
+import com.google.common.io.ByteStreams;
+
+public class WireMockHandlerDispatchingServlet extends com.github.tomakehurst.wiremock.servlet.WireMockHandlerDispatchingServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private ScheduledExecutorService scheduledExecutorService;
+    private GzipSettings gzipSettings;
+    private CompressedBodyCache compressedBodyCache;
+    private ThrottleSettings throttleSettings;
+
+    @Override
+    public void init(ServletConfig config) {
+        super.init(config);
+        final Object timer = config.getServletContext().getAttribute(HashedWheelTimer.class.getName());
+        scheduledExecutorService = timer != null
+                ? (ScheduledExecutorService) timer
+                : (ScheduledExecutorService) config.getServletContext().getAttribute(ASYNCHRONOUS_RESPONSE_EXECUTOR);
+        final Object throttle = config.getServletContext().getAttribute(ThrottleSettings.class.getName());
+        throttleSettings = throttle != null ? (ThrottleSettings) throttle : ThrottleSettings.NONE;
+        gzipSettings = (GzipSettings) config.getServletContext().getAttribute(GzipSettings.class.getName());
+        compressedBodyCache = (CompressedBodyCache) config.getServletContext().getAttribute(CompressedBodyCache.class.getName());
+    }
+
+    @Override
+    protected void service(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) throws ServletException, IOException {
+        super.service(new DeferredCompletionRequest(httpServletRequest), httpServletResponse);
+    }
+
+    @Override
+    public void applyResponse(Response response, HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) {
+        final ThrottleSettings fixedThrottleSettings = response instanceof ThrottledResponse
+                ? ((ThrottledResponse) response).getThrottleSettings()
+                : throttleSettings;
+        final Response fixedResponse = compressIfPossible(response, httpServletRequest);
+        final boolean canDefer = scheduledExecutorService != null
+                && fixedResponse.getFault() == null
+                && httpServletRequest instanceof DeferredCompletionRequest
+                && httpServletRequest.isAsyncSupported();
+
+        if (canDefer && fixedResponse.shouldAddChunkedDribbleDelay()) {
+            applyDribbledResponse(fixedResponse, (DeferredCompletionRequest) httpServletRequest, httpServletResponse);
+            return;
+        }
+
+        if (canDefer && fixedThrottleSettings.isEnabled()) {
+            applyThrottledResponse(fixedResponse, fixedThrottleSettings, (DeferredCompletionRequest) httpServletRequest, httpServletResponse);
+            return;
+        }
+
+        super.applyResponse(fixedResponse, httpServletRequest, httpServletResponse);
+    }
+
+    private void applyThrottledResponse(Response response, ThrottleSettings throttleSettings, DeferredCompletionRequest httpServletRequest, HttpServletResponse httpServletResponse) {
+        applyStatusAndHeaders(response, httpServletResponse);
+
+        final AsyncContext asyncContext = httpServletRequest.deferCompletion();
+        final ThrottledBodyWriter throttledBodyWriter;
+
+        try {
+            throttledBodyWriter = new ThrottledBodyWriter(asyncContext, httpServletResponse.getOutputStream(), bodyOf(response), throttleSettings, scheduledExecutorService);
+        } catch (IOException e) {
+            asyncContext.complete();
+            return;
+        }
+
+        try {
+            scheduledExecutorService.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    throttledBodyWriter.start();
+                }
+            }, throttleSettings.sampleFirstByteDelayMillis(), MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            asyncContext.complete();
+        }
+    }
+
+    private void applyDribbledResponse(Response response, DeferredCompletionRequest httpServletRequest, HttpServletResponse httpServletResponse) {
+        applyStatusAndHeaders(response, httpServletResponse);
+
+        final ChunkedDribbleDelay chunkedDribbleDelay = response.getChunkedDribbleDelay();
+        final byte[][] chunks = chunk(bodyOf(response), chunkedDribbleDelay.getNumberOfChunks());
+        final long chunkInterval = chunkedDribbleDelay.getTotalDuration() / Math.max(1, chunks.length);
+        final AsyncContext asyncContext = httpServletRequest.deferCompletion();
+        final DribbledBodyWriter dribbledBodyWriter;
+
+        try {
+            dribbledBodyWriter = new DribbledBodyWriter(asyncContext, httpServletResponse.getOutputStream(), chunks, chunkInterval, scheduledExecutorService);
+        } catch (IOException e) {
+            asyncContext.complete();
+            return;
+        }
+
+        dribbledBodyWriter.start();
+    }
+
+    @SuppressWarnings("deprecation")
+    private static void applyStatusAndHeaders(Response response, HttpServletResponse httpServletResponse) {
+        if (response.getStatusMessage() != null) {
+            httpServletResponse.setStatus(response.getStatus(), response.getStatusMessage());
+        } else {
+            httpServletResponse.setStatus(response.getStatus());
+        }
+
+        if (!response.getHeaders().getHeader(CONTENT_ENCODING).isPresent()) {
+            // the Jetty 9.2 gzip handler would hand out an output without non-blocking writes,
+            // any encoding set before the output is taken keeps it out of the way
+            httpServletResponse.setHeader(CONTENT_ENCODING, "identity");
+            httpServletResponse.setHeader(CONTENT_ENCODING, null);
+        }
+
+        for (HttpHeader header : response.getHeaders().all()) {
+            for (String value : header.values()) {
+                httpServletResponse.addHeader(header.key(), value);
+            }
+        }
+    }
+
+    private static byte[] bodyOf(Response response) {
+        // not getBody(), which only returns the journaled prefix of a streamed response
+        try (InputStream bodyStream = response.getBodyStream()) {
+            return bodyStream == null ? null : ByteStreams.toByteArray(bodyStream);
+        } catch (IOException e) {
+            return Exceptions.throwUnchecked(e, byte[].class);
+        }
+    }
+
+    private static byte[][] chunk(byte[] body, int numberOfChunks) {
+        if (body == null || body.length == 0) {
+            return new byte[0][];
+        }
+
+        final int chunkSize = (body.length + Math.max(1, numberOfChunks) - 1) / Math.max(1, numberOfChunks);
+        final byte[][] chunks = new byte[(body.length + chunkSize - 1) / chunkSize][];
+
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = Arrays.copyOfRange(body, i * chunkSize, Math.min(body.length, (i + 1) * chunkSize));
+        }
+
+        return chunks;
+    }
+
+    private Response compressIfPossible(Response response, HttpServletRequest httpServletRequest) {
+        if (gzipSettings == null
+                || compressedBodyCache == null
+                || !mayHaveBody(response.getStatus())
+                || response.getFault() != null
+                || response.isFromProxy()
+                || response.shouldAddChunkedDribbleDelay()
+                || "HEAD".equals(httpServletRequest.getMethod())) {
+            return response;
+        }
+
+        final HttpHeaders headers = response.getHeaders();
+
+        if (headers.getHeader(CONTENT_ENCODING).isPresent()
+                || headers.getHeader(CONTENT_LENGTH).isPresent()
+                || headers.getHeader(TRANSFER_ENCODING).isPresent()) {
+            return response;
+        }
+
+        final byte[] body = response.getBody();
+
+        if (body == null || !Gzip.acceptsGzip(httpServletRequest.getHeader(ACCEPT_ENCODING))) {
+            return response;
+        }
+
+        // the gzip handler only honours its minimum size for responses with a known length,
+        // which matters only to clients it would otherwise compress for
+        if (body.length < gzipSettings.getMinGzipSize()) {
+            return copyOf(response, body, headers.plus(HttpHeader.httpHeader(CONTENT_LENGTH, String.valueOf(body.length))));
+        }
+
+        final ContentTypeHeader contentTypeHeader = headers.getContentTypeHeader();
+        final String mimeType = contentTypeHeader.isPresent() ? contentTypeHeader.mimeTypePart() : null;
+
+        if (!compressedBodyCache.shouldCompress(mimeType, body.length)) {
+            return response;
+        }
+
+        final HttpHeaders compressedHeaders = headers.plus(
+                HttpHeader.httpHeader(CONTENT_ENCODING, Gzip.GZIP),
+                HttpHeader.httpHeader(VARY, ACCEPT_ENCODING)
+        );
+
+        return copyOf(response, compressedBodyCache.compress(body), compressedHeaders);
+    }
+
+    private static boolean mayHaveBody(int status) {
+        return status >= 200 && status != 204 && status != 304;
+    }
+
+    private static Response copyOf(Response response, byte[] body, HttpHeaders headers) {
+        return new Response(
+                response.getStatus(),
+                response.getStatusMessage(),
+                body,
+                headers,
+                response.wasConfigured(),
+                response.getFault(),
+                response.getInitialDelay(),
+                response.getChunkedDribbleDelay(),
+                response.isFromProxy()
+        );
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.ehrlichandreas.wiremock.starter;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.github.ehrlichandreas.wiremock.WireMockServer;
+import com.github.ehrlichandreas.wiremock.http.DispatchTarget;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.Response;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Dispatch target standing in for a proxied server that is only created, and has its stubs
+ * loaded, on the first request. With an idle timeout the server is stopped and dropped again
+ * once it has not been hit for that long and no dispatch to it is in progress; the next request
+ * starts a fresh one, so its journal starts over.
+ */
+public class LazyWireMockServer implements DispatchTarget {
+
+    private static final ScheduledExecutorService IDLE_REAPER = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("wiremock-idle-reaper-%d").setDaemon(true).build()
+    );
+
+    private final Supplier<WireMockServer> wireMockServerSupplier;
+    private final long idleTimeoutMillis;
+    private volatile WireMockServer wireMockServer;
+    private volatile long lastAccessNanos;
+    private int dispatching;
+    private ScheduledFuture<?> idleCheck;
+
+    public LazyWireMockServer(Supplier<WireMockServer> wireMockServerSupplier, long idleTimeoutMillis) {
+        this.wireMockServerSupplier = wireMockServerSupplier;
+        this.idleTimeoutMillis = Math.max(0L, idleTimeoutMillis);
+    }
+
+    @Override
+    public Response dispatch(Request request) {
+        final WireMockServer target = beginDispatch();
+
+        try {
+            return target.inProcessDispatcher().dispatch(request);
+        } finally {
+            endDispatch();
+        }
+    }
+
+    public WireMockServer start() {
+        final WireMockServer started = wireMockServer;
+
+        if (started != null) {
+            return started;
+        }
+
+        synchronized (this) {
+            if (wireMockServer == null) {
+                final WireMockServer created = wireMockServerSupplier.get();
+                // mounted servers are also reached without this dispatcher, so track every served request
+                created.addMockServiceRequestListener((servedRequest, response) -> lastAccessNanos = System.nanoTime());
+                created.start();
+                lastAccessNanos = System.nanoTime();
+                wireMockServer = created;
+                scheduleIdleCheck(idleTimeoutMillis);
+            }
+
+            return wireMockServer;
+        }
+    }
+
+    public synchronized void stop() {
+        if (idleCheck != null) {
+            idleCheck.cancel(false);
+            idleCheck = null;
+        }
+
+        final WireMockServer started = wireMockServer;
+        wireMockServer = null;
+
+        if (started != null) {
+            started.stop();
+        }
+    }
+
+    public boolean isRunning() {
+        return wireMockServer != null;
+    }
+
+    private synchronized WireMockServer beginDispatch() {
+        dispatching++;
+        lastAccessNanos = System.nanoTime();
+
+        try {
+            return start();
+        } catch (RuntimeException e) {
+            dispatching--;
+            throw e;
+        }
+    }
+
+    private synchronized void endDispatch() {
+        dispatching--;
+        lastAccessNanos = System.nanoTime();
+    }
+
+    private void scheduleIdleCheck(long delayMillis) {
+        if (idleTimeoutMillis > 0) {
+            idleCheck = IDLE_REAPER.schedule(this::checkIdle, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void checkIdle() {
+        if (wireMockServer == null) {
+            return;
+        }
+
+        final long idleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastAccessNanos);
+
+        if (dispatching > 0) {
+            scheduleIdleCheck(idleTimeoutMillis);
+        } else if (idleMillis >= idleTimeoutMillis) {
+            stop();
+        } else {
+            scheduleIdleCheck(idleTimeoutMillis - idleMillis);
+        }
+    }
+}
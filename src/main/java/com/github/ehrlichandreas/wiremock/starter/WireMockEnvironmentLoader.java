@@ -0,0 +1,72 @@
+package com.github.ehrlichandreas.wiremock.starter;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+/**
+ * Loads the Spring environment of a starter once and hands out the cached copy afterwards.
+ * The application context is only needed to collect the property sources and is closed right
+ * after its refresh. Environments are keyed by the scanned package, or by the configuration
+ * classes when they are registered directly without a component scan.
+ */
+public class WireMockEnvironmentLoader implements Closeable {
+
+    private static final WireMockEnvironmentLoader SHARED = new WireMockEnvironmentLoader();
+
+    private final ConcurrentMap<List<String>, ConfigurableEnvironment> environments = new ConcurrentHashMap<>();
+
+    public static WireMockEnvironmentLoader shared() {
+        return SHARED;
+    }
+
+    public ConfigurableEnvironment loadForPackage(String packageName) {
+        Objects.requireNonNull(packageName);
+
+        return environments.computeIfAbsent(Arrays.asList("package", packageName), key -> {
+            final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+            context.scan(packageName);
+            return refreshAndClose(context);
+        });
+    }
+
+    public ConfigurableEnvironment loadForConfigurations(Class<?>... configurationClasses) {
+        final List<String> key = Arrays.stream(configurationClasses)
+                .map(Class::getName)
+                .collect(Collectors.toList());
+
+        return environments.computeIfAbsent(key, k -> {
+            final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+
+            if (configurationClasses.length > 0) {
+                context.register(configurationClasses);
+            }
+
+            return refreshAndClose(context);
+        });
+    }
+
+    private static ConfigurableEnvironment refreshAndClose(AnnotationConfigApplicationContext context) {
+        try {
+            context.refresh();
+            return context.getEnvironment();
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * Drops the cached environments, the next lookups load them again.
+     */
+    @Override
+    public void close() {
+        environments.clear();
+    }
+}
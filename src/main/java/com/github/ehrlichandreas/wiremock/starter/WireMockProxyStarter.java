@@ -1,20 +1,33 @@
 package com.github.ehrlichandreas.wiremock.starter;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.AbstractMap;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
-import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.EnumerablePropertySource;
 import org.springframework.core.env.PropertySource;
@@ -23,19 +36,34 @@ import org.springframework.core.env.PropertySources;
 import com.github.ehrlichandreas.wiremock.core.Options;
 import com.github.ehrlichandreas.wiremock.creater.WireMockCreater;
 import com.github.ehrlichandreas.wiremock.creater.WireMockProperties;
+import com.github.ehrlichandreas.wiremock.extension.InProcessDispatchTransformer;
+import com.github.ehrlichandreas.wiremock.http.InProcessDispatcher;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.MappingBuilder;
 import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
 import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.extension.ResponseTransformer;
 import com.github.tomakehurst.wiremock.matching.UrlPattern;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 public abstract class WireMockProxyStarter extends WireMockStarter implements WireMockCreaterProxyLoader {
 
     private static final String PROXY_PROTOCOL = "http";
     private static final String PROXY_HOST = "localhost";
+    private static final int HTTP_SERVICE_UNAVAILABLE = 503;
     private static final boolean INIT_PROXIED_SERVERS_DEFAULT = true;
     private static final String LOAD_WIRE_MOCK_CREATER_METHOD_NAME = "loadWireMockCreater";
+    private static final ConcurrentMap<String, WireMockCreaterLoader> WIRE_MOCK_CREATER_LOADERS = new ConcurrentHashMap<>();
+    private static final int STARTER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final boolean MOUNT_PROXIED_SERVERS_DEFAULT = false;
+    private static final boolean LAZY_PROXIED_SERVERS_DEFAULT = false;
+    private static final long PROXIED_SERVERS_IDLE_TIMEOUT_DEFAULT = 0L;
     private boolean initProxiedServers = INIT_PROXIED_SERVERS_DEFAULT;
+    private boolean mountProxiedServers = MOUNT_PROXIED_SERVERS_DEFAULT;
+    private boolean lazyProxiedServers = LAZY_PROXIED_SERVERS_DEFAULT;
+    private long proxiedServersIdleTimeoutMillis = PROXIED_SERVERS_IDLE_TIMEOUT_DEFAULT;
+    private final ConcurrentMap<String, LazyWireMockServer> lazyWireMockServers = new ConcurrentHashMap<>();
 
     public abstract String getWiremockServerPortPropertyName();
 
@@ -47,6 +75,30 @@ public abstract class WireMockProxyStarter extends WireMockStarter implements Wi
 
     public abstract String getWiremockInitProxiedServersPropertyName();
 
+    /**
+     * Name of the boolean property hosting the proxied servers as tenants of the proxy's own
+     * Jetty instead of starting a server per stub set. Mounting is off unless overridden.
+     */
+    public String getWiremockMountProxiedServersPropertyName() {
+        return null;
+    }
+
+    /**
+     * Name of the boolean property deferring the start of each proxied server to the first
+     * request to its root context. Lazy starts are off unless overridden.
+     */
+    public String getWiremockLazyProxiedServersPropertyName() {
+        return null;
+    }
+
+    /**
+     * Name of the property holding the idle time in milliseconds after which a lazily started
+     * proxied server is stopped again; 0 keeps it running.
+     */
+    public String getWiremockProxiedServersIdleTimeoutPropertyName() {
+        return null;
+    }
+
     @Override
     public int startWireMockServer() {
         final WireMockCreater wireMockCreater = loadWireMockCreater();
@@ -63,11 +115,7 @@ public abstract class WireMockProxyStarter extends WireMockStarter implements Wi
 
     @Override
     public WireMockCreater loadWireMockCreater() {
-        final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
-        context.scan(this.getClass().getPackage().getName());
-        context.refresh();
-
-        final ConfigurableEnvironment configurableEnvironment = context.getEnvironment();
+        final ConfigurableEnvironment configurableEnvironment = loadConfigurableEnvironment();
         final String initProxiedServersAsString = configurableEnvironment.getProperty(getWiremockInitProxiedServersPropertyName());
         final Optional<String> initProxiedServersAsStringOptional = Optional.ofNullable(initProxiedServersAsString);
         final String initProxiedServersDefault = String.valueOf(INIT_PROXIED_SERVERS_DEFAULT);
@@ -75,8 +123,39 @@ public abstract class WireMockProxyStarter extends WireMockStarter implements Wi
 
         this.initProxiedServers = Boolean.parseBoolean(initProxiedServersFixed);
 
+        final String mountProxiedServersFixed = getOptionalProperty(configurableEnvironment,
+                getWiremockMountProxiedServersPropertyName(), String.valueOf(MOUNT_PROXIED_SERVERS_DEFAULT));
+        final String lazyProxiedServersFixed = getOptionalProperty(configurableEnvironment,
+                getWiremockLazyProxiedServersPropertyName(), String.valueOf(LAZY_PROXIED_SERVERS_DEFAULT));
+        final String proxiedServersIdleTimeoutFixed = getOptionalProperty(configurableEnvironment,
+                getWiremockProxiedServersIdleTimeoutPropertyName(), String.valueOf(PROXIED_SERVERS_IDLE_TIMEOUT_DEFAULT));
+
+        this.mountProxiedServers = Boolean.parseBoolean(mountProxiedServersFixed);
+        this.lazyProxiedServers = Boolean.parseBoolean(lazyProxiedServersFixed);
+        this.proxiedServersIdleTimeoutMillis = Long.parseLong(proxiedServersIdleTimeoutFixed.trim());
+
         return super.loadWireMockCreater();
     }
+
+    private static String getOptionalProperty(ConfigurableEnvironment configurableEnvironment, String propertyName,
+            String defaultValue) {
+        final Optional<String> propertyNameOptional = Optional.ofNullable(propertyName);
+        final Optional<String> propertyValueOptional = propertyNameOptional.map(configurableEnvironment::getProperty);
+        return propertyValueOptional.orElse(defaultValue);
+    }
+
+    /**
+     * Stops the lazily started proxied servers and unregisters them as dispatch targets, so
+     * their proxy stubs fall back to their own 503 response until they are registered again.
+     */
+    public void stopLazyWireMockServers() {
+        lazyWireMockServers.forEach((dispatcherName, lazyWireMockServer) -> {
+            InProcessDispatcher.unregister(dispatcherName, lazyWireMockServer);
+            lazyWireMockServers.remove(dispatcherName, lazyWireMockServer);
+            lazyWireMockServer.stop();
+        });
+    }
+
     @Override
     public Collection<WireMockServer> initWireMockServersForProxy(WireMockServer wireMockProxy) {
         return initWireMockServersForProxy(wireMockProxy, null);
@@ -93,8 +172,11 @@ public abstract class WireMockProxyStarter extends WireMockStarter implements Wi
         final Collection<String> classNameCollection = loadWireMockStarters();
         final Optional<Collection<String>> classNameCollectionOptional = Optional.ofNullable(classNameCollection);
         final Collection<String> classNameCollectionFixed = classNameCollectionOptional.orElse(emptyList);
+        final Collection<String> registeredClassNameCollection = loadRegisteredWireMockStarters();
 
-        final Stream<String> classNameStream = classNameCollectionFixed.stream();
+        final Stream<String> classNameStream = Stream
+                .concat(classNameCollectionFixed.stream(), registeredClassNameCollection.stream())
+                .distinct();
 
         final Stream<String> classNameStreamFiltered = classNameStream
                 .filter(className -> classNameContainsSubstring(classNameSubStringsFixed, className));
@@ -102,23 +184,180 @@ public abstract class WireMockProxyStarter extends WireMockStarter implements Wi
 
         final Collection<WireMockCreater> wireMockCreaterCollection = createWireMockCreaters(
                 classNameCollectionFiltered);
-        final Stream<WireMockCreater> wireMockCreaterStream = wireMockCreaterCollection.stream();
-        final Stream<Map.Entry<WireMockServer, MappingBuilder>> entryStream = wireMockCreaterStream
-                .map(this::initCustomerviewWireMockServer);
-        final Collection<Map.Entry<WireMockServer, MappingBuilder>> entryCollection = entryStream
-                .collect(Collectors.toList());
 
-        final Stream<MappingBuilder> mappingBuilderStream = entryCollection.stream().map(Map.Entry::getValue);
-        final Collection<MappingBuilder> mappingBuilderCollection = mappingBuilderStream.collect(Collectors.toList());
+        if (lazyProxiedServers && supportsInProcessDispatch(wireMockProxy)) {
+            return registerLazyWireMockServers(wireMockProxy, wireMockCreaterCollection);
+        }
+
+        if (mountProxiedServers && wireMockProxy instanceof com.github.ehrlichandreas.wiremock.WireMockServer) {
+            return mountWireMockServers((com.github.ehrlichandreas.wiremock.WireMockServer) wireMockProxy,
+                    wireMockCreaterCollection);
+        }
+
+        final Collection<Map.Entry<WireMockServer, Map.Entry<String, MappingBuilder>>> entryCollection = startWireMockServers(
+                wireMockCreaterCollection, supportsInProcessDispatch(wireMockProxy));
+
+        final Stream<Map.Entry<String, MappingBuilder>> proxyRouteStream = entryCollection.stream().map(Map.Entry::getValue);
+        final Collection<Map.Entry<String, MappingBuilder>> proxyRouteCollection = proxyRouteStream
+                .collect(Collectors.toList());
 
         final Stream<WireMockServer> wireMockServerStream = entryCollection.stream().map(Map.Entry::getKey);
         final Collection<WireMockServer> wireMockServerCollection = wireMockServerStream.collect(Collectors.toList());
 
-        mappingBuilderCollection.forEach(wireMockProxy::stubFor);
+        registerProxyRoutes(wireMockProxy, proxyRouteCollection);
 
         return wireMockServerCollection;
     }
 
+    /**
+     * Registers the routes from root context to proxy stub in one pass. Our own proxy server
+     * routes them by literal prefix ahead of its stub matching; any other server gets them as
+     * regular stubs.
+     */
+    private void registerProxyRoutes(WireMockServer wireMockProxy, Collection<Map.Entry<String, MappingBuilder>> proxyRouteCollection) {
+        if (wireMockProxy instanceof com.github.ehrlichandreas.wiremock.WireMockServer) {
+            final com.github.ehrlichandreas.wiremock.WireMockServer routingWireMockProxy = (com.github.ehrlichandreas.wiremock.WireMockServer) wireMockProxy;
+            proxyRouteCollection.forEach(proxyRoute -> routingWireMockProxy.addProxyRoute(proxyRoute.getKey(), proxyRoute.getValue()));
+            return;
+        }
+
+        final Stream<MappingBuilder> mappingBuilderStream = proxyRouteCollection.stream().map(Map.Entry::getValue);
+        final Collection<StubMapping> stubMappingCollection = mappingBuilderStream.map(MappingBuilder::build)
+                .collect(Collectors.toList());
+
+        stubMappingCollection.forEach(wireMockProxy::addStubMapping);
+    }
+
+    /**
+     * Registers the proxy stubs right away, but leaves creating and starting each proxied
+     * server, mounted or standalone, to the first request dispatched to it. Nothing is started
+     * here, so no servers are returned; {@link #stopLazyWireMockServers()} stops and
+     * unregisters them.
+     */
+    private Collection<WireMockServer> registerLazyWireMockServers(WireMockServer wireMockProxy,
+            Collection<WireMockCreater> wireMockCreaterCollection) {
+        final boolean mount = mountProxiedServers && wireMockProxy instanceof com.github.ehrlichandreas.wiremock.WireMockServer;
+
+        final Stream<Map.Entry<String, MappingBuilder>> proxyRouteStream = wireMockCreaterCollection.stream().map(wireMockCreater -> {
+            final Supplier<com.github.ehrlichandreas.wiremock.WireMockServer> wireMockServerSupplier = mount
+                    ? () -> wireMockCreater.createWireMockMountedOn((com.github.ehrlichandreas.wiremock.WireMockServer) wireMockProxy)
+                    : wireMockCreater::createWireMock;
+            final LazyWireMockServer lazyWireMockServer = new LazyWireMockServer(wireMockServerSupplier,
+                    proxiedServersIdleTimeoutMillis);
+            final String stubsRootContext = wireMockCreater.getWireMockProperties().getStubsRootContext();
+            final String dispatcherName = "lazy:" + wireMockProxy.port() + stubsRootContext;
+
+            InProcessDispatcher.register(dispatcherName, lazyWireMockServer);
+            final LazyWireMockServer replaced = lazyWireMockServers.put(dispatcherName, lazyWireMockServer);
+
+            if (replaced != null) {
+                replaced.stop();
+            }
+
+            final MappingBuilder proxyMappingBuilder = createInProcessMappingBuilder(stubsRootContext, dispatcherName);
+            return new AbstractMap.SimpleImmutableEntry<>(stubsRootContext, proxyMappingBuilder);
+        });
+        final Collection<Map.Entry<String, MappingBuilder>> proxyRouteCollection = proxyRouteStream
+                .collect(Collectors.toList());
+
+        registerProxyRoutes(wireMockProxy, proxyRouteCollection);
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * Mounts the proxied servers on the proxy's Jetty, each under its stubs root context. No
+     * proxy stubs are needed as the contexts route the requests directly.
+     */
+    private Collection<WireMockServer> mountWireMockServers(com.github.ehrlichandreas.wiremock.WireMockServer wireMockProxy,
+            Collection<WireMockCreater> wireMockCreaterCollection) {
+        final Queue<WireMockServer> mountedServers = new ConcurrentLinkedQueue<>();
+
+        try {
+            wireMockCreaterCollection.forEach(wireMockCreater -> {
+                final WireMockServer wireMockServer = wireMockCreater.createWireMockMountedOn(wireMockProxy);
+                wireMockServer.start();
+                mountedServers.add(wireMockServer);
+            });
+        } catch (RuntimeException e) {
+            mountedServers.forEach(WireMockServer::stop);
+            throw e;
+        }
+
+        return mountedServers.stream().collect(Collectors.toList());
+    }
+
+    /**
+     * Starts the proxied servers concurrently on a bounded pool. The first failure aborts the
+     * whole batch: every server created so far is stopped, whether it is up already or still
+     * starting, servers coming up afterwards are stopped again and the failure is rethrown
+     * without waiting for the remaining ones.
+     */
+    private Collection<Map.Entry<WireMockServer, Map.Entry<String, MappingBuilder>>> startWireMockServers(
+            Collection<WireMockCreater> wireMockCreaterCollection, boolean inProcess) {
+        if (wireMockCreaterCollection.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final int threads = Math.min(wireMockCreaterCollection.size(), STARTER_THREADS);
+        final ExecutorService executorService = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder().setNameFormat("wiremock-proxy-starter-%d").setDaemon(true).build());
+        final Queue<com.github.ehrlichandreas.wiremock.WireMockServer> createdServers = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean aborted = new AtomicBoolean();
+        final CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+
+        try {
+            final List<CompletableFuture<Map.Entry<WireMockServer, Map.Entry<String, MappingBuilder>>>> futures = wireMockCreaterCollection
+                    .stream()
+                    .map(wireMockCreater -> startWireMockServer(wireMockCreater, executorService, createdServers, aborted, inProcess))
+                    .peek(future -> future.whenComplete((entry, throwable) -> {
+                        if (throwable != null) {
+                            firstFailure.completeExceptionally(throwable);
+                        }
+                    }))
+                    .collect(Collectors.toList());
+            final CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+
+            CompletableFuture.anyOf(all, firstFailure).join();
+
+            return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        } catch (CompletionException e) {
+            aborted.set(true);
+            executorService.shutdownNow();
+            createdServers.forEach(com.github.ehrlichandreas.wiremock.WireMockServer::stop);
+
+            final Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private CompletableFuture<Map.Entry<WireMockServer, Map.Entry<String, MappingBuilder>>> startWireMockServer(
+            WireMockCreater wireMockCreater, Executor executor,
+            Queue<com.github.ehrlichandreas.wiremock.WireMockServer> createdServers, AtomicBoolean aborted,
+            boolean inProcess) {
+        return CompletableFuture
+                .supplyAsync(() -> {
+                    final com.github.ehrlichandreas.wiremock.WireMockServer wireMockServer = wireMockCreater.createWireMock();
+                    createdServers.add(wireMockServer);
+                    return wireMockServer;
+                }, executor)
+                .thenCompose(wireMockServer -> wireMockServer.startAsync(executor).thenApply(port -> {
+                    if (aborted.get()) {
+                        wireMockServer.stop();
+                    }
+
+                    final WireMockProperties wireMockProperties = wireMockCreater.getWireMockProperties();
+                    final WireMockProperties wireMockPropertiesFixed = wireMockProperties.withServerPort(port);
+                    final MappingBuilder proxyMappingBuilder = createProxyMappingBuilder(wireMockPropertiesFixed, inProcess);
+                    final Map.Entry<String, MappingBuilder> proxyRoute = new AbstractMap.SimpleImmutableEntry<>(
+                            wireMockProperties.getStubsRootContext(), proxyMappingBuilder);
+
+                    return new AbstractMap.SimpleImmutableEntry<>(wireMockServer, proxyRoute);
+                }));
+    }
+
     private boolean classNameContainsSubstring(Collection<String> classNameSubStringsFixed, String className) {
         return classNameSubStringsFixed.isEmpty()
                 || classNameSubStringsFixed.stream().anyMatch(className::contains);
@@ -132,25 +371,39 @@ public abstract class WireMockProxyStarter extends WireMockStarter implements Wi
         final Stream<WireMockProperties> wireMockPropertiesStream = wireMockCreaterStream
                 .map(WireMockCreater::getWireMockProperties);
         final Stream<WireMockProperties> wireMockPropertiesStreamFixed = wireMockPropertiesStream
-                .map(WireMockProperties::withDynamicServerPort);
+                .map(WireMockProperties::withDynamicServerPort)
+                .map(WireMockProperties::withLazyAdminContext);
         final Stream<WireMockCreater> wireMockCreaterStreamFixed = wireMockPropertiesStreamFixed
                 .map(WireMockCreater::of);
         return wireMockCreaterStreamFixed.collect(Collectors.toList());
     }
 
-    private Map.Entry<WireMockServer, MappingBuilder> initCustomerviewWireMockServer(
-            WireMockCreater wireMockCreater) {
-        Objects.requireNonNull(wireMockCreater);
+    /**
+     * Routes the root context of a sub-server to it in process when the proxy server has the
+     * dispatch transformer installed, and falls back to an HTTP loopback proxy otherwise.
+     */
+    private MappingBuilder createProxyMappingBuilder(WireMockProperties wireMockProperties, boolean inProcess) {
+        return inProcess
+                ? createInProcessMappingBuilder(wireMockProperties.getStubsRootContext(), wireMockProperties.getServerPort())
+                : createProxyMappingBuilder(wireMockProperties);
+    }
 
-        final WireMockServer wireMockServer = wireMockCreater.createWireMock();
-        wireMockServer.start();
+    private boolean supportsInProcessDispatch(WireMockServer wireMockProxy) {
+        final Map<String, ResponseTransformer> responseTransformers = wireMockProxy.getOptions()
+                .extensionsOfType(ResponseTransformer.class);
+        return responseTransformers.containsKey(InProcessDispatchTransformer.NAME);
+    }
 
-        final int port = wireMockServer.port();
-        final WireMockProperties wireMockProperties = wireMockCreater.getWireMockProperties();
-        final WireMockProperties wireMockPropertiesFixed = wireMockProperties.withServerPort(port);
-        final MappingBuilder proxyMappingBuilder = createProxyMappingBuilder(wireMockPropertiesFixed);
+    private MappingBuilder createInProcessMappingBuilder(String stubsRootContext, Object dispatchTo) {
+        Objects.requireNonNull(dispatchTo);
 
-        return new AbstractMap.SimpleImmutableEntry<>(wireMockServer, proxyMappingBuilder);
+        final String proxyRootContext = stubsRootContext + "/.*";
+        final ResponseDefinitionBuilder responseDefinitionBuilder = WireMock.aResponse()
+                .withStatus(HTTP_SERVICE_UNAVAILABLE)
+                .withTransformerParameter(InProcessDispatchTransformer.PARAMETER, dispatchTo);
+        final UrlPattern urlPattern = WireMock.urlMatching(proxyRootContext);
+
+        return WireMock.any(urlPattern).willReturn(responseDefinitionBuilder);
     }
 
     private MappingBuilder createProxyMappingBuilder(WireMockProperties wireMockProperties) {
@@ -191,46 +444,81 @@ public abstract class WireMockProxyStarter extends WireMockStarter implements Wi
         return propertyValueStreamDistinct.collect(Collectors.toList());
     }
 
-    private ConfigurableEnvironment loadConfigurableEnvironment() {
-        final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
-        final String packageName = this.getClass().getPackage().getName();
+    private WireMockCreater loadWireMockCreater(final String className) {
+        final Optional<String> classNameOptional = Optional.ofNullable(className);
+        final Optional<WireMockCreaterLoader> wireMockCreaterLoaderOptional = classNameOptional
+                .map(name -> WIRE_MOCK_CREATER_LOADERS.computeIfAbsent(name, WireMockProxyStarter::resolveWireMockCreaterLoader));
 
-        context.scan(packageName);
-        context.refresh();
+        return wireMockCreaterLoaderOptional.map(WireMockCreaterLoader::loadWireMockCreater).orElse(null);
+    }
 
-        return context.getEnvironment();
+    /**
+     * Starters registered as {@link WireMockCreaterLoader} services, offered next to the class
+     * names configured as properties. The service instances serve their own creaters, so no
+     * reflection is involved for them.
+     */
+    private Collection<String> loadRegisteredWireMockStarters() {
+        final ServiceLoader<WireMockCreaterLoader> serviceLoader = ServiceLoader
+                .load(WireMockCreaterLoader.class, this.getClass().getClassLoader());
+        final Stream<WireMockCreaterLoader> wireMockCreaterLoaderStream = StreamSupport
+                .stream(serviceLoader.spliterator(), false)
+                .filter(wireMockCreaterLoader -> wireMockCreaterLoader.getClass() != this.getClass());
+
+        return wireMockCreaterLoaderStream
+                .peek(wireMockCreaterLoader -> WIRE_MOCK_CREATER_LOADERS
+                        .putIfAbsent(wireMockCreaterLoader.getClass().getName(), wireMockCreaterLoader))
+                .map(wireMockCreaterLoader -> wireMockCreaterLoader.getClass().getName())
+                .collect(Collectors.toList());
     }
 
-    private WireMockCreater loadWireMockCreater(final String className) {
-        final Optional<String> classNameOptional = Optional.ofNullable(className);
-        final Optional<? extends Class<?>> classOptional = classNameOptional.map(s -> {
-            try {
-                return Class.forName(s);
-            } catch (ClassNotFoundException e) {
-                throw new RuntimeException(e);
-            }
-        });
-        final Optional<Method> loadWireMockCreater = classOptional.map(classN -> {
-            try {
-                return classN.getMethod(LOAD_WIRE_MOCK_CREATER_METHOD_NAME);
-            } catch (NoSuchMethodException e) {
-                throw new RuntimeException(e);
+    /**
+     * Resolves a starter class once to method handles for its no-arg constructor and, unless it
+     * implements {@link WireMockCreaterLoader}, for its {@code loadWireMockCreater} method. Every
+     * load still works on a fresh starter instance.
+     */
+    private static WireMockCreaterLoader resolveWireMockCreaterLoader(final String className) {
+        try {
+            final Class<?> starterClass = Class.forName(className);
+            final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            final MethodHandle constructor = lookup
+                    .findConstructor(starterClass, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+
+            if (WireMockCreaterLoader.class.isAssignableFrom(starterClass)) {
+                return () -> {
+                    try {
+                        final Object starter = constructor.invokeExact();
+                        return ((WireMockCreaterLoader) starter).loadWireMockCreater();
+                    } catch (Throwable throwable) {
+                        throw propagate(throwable);
+                    }
+                };
             }
-        });
-        final Optional<Object> optionalObject = loadWireMockCreater.map(method -> {
+
+            final Method method = starterClass.getMethod(LOAD_WIRE_MOCK_CREATER_METHOD_NAME);
             method.setAccessible(true);
-            final Class<?> aClass = classOptional.get();
-            try {
-                final Constructor<?> declaredConstructor = aClass.getDeclaredConstructor();
-                final Object object = declaredConstructor.newInstance();
-                return method.invoke(object);
-            } catch (IllegalAccessException | InvocationTargetException | InstantiationException | NoSuchMethodException e) {
-                throw new RuntimeException(e);
-            }
-        });
-        final Optional<WireMockCreater> wireMockCreaterOptional = optionalObject
-                .map(object -> (WireMockCreater) object);
+            final MethodHandle loadWireMockCreater = MethodHandles.lookup().unreflect(method)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+
+            return () -> {
+                try {
+                    final Object starter = constructor.invokeExact();
+                    final Object wireMockCreater = loadWireMockCreater.invokeExact(starter);
+                    return (WireMockCreater) wireMockCreater;
+                } catch (Throwable throwable) {
+                    throw propagate(throwable);
+                }
+            };
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static RuntimeException propagate(Throwable throwable) {
+        if (throwable instanceof Error) {
+            throw (Error) throwable;
+        }
 
-        return wireMockCreaterOptional.orElse(null);
+        return throwable instanceof RuntimeException ? (RuntimeException) throwable : new RuntimeException(throwable);
     }
 }
@@ -2,7 +2,6 @@ package com.github.ehrlichandreas.wiremock.starter;
 
 import java.util.Optional;
 
-import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.core.env.ConfigurableEnvironment;
 
 import com.github.ehrlichandreas.wiremock.core.Options;
@@ -28,11 +27,7 @@ public abstract class WireMockStarter implements WireMockCreaterLoader {
 
     @Override
     public WireMockCreater loadWireMockCreater() {
-        final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
-        context.scan(this.getClass().getPackage().getName());
-        context.refresh();
-
-        final ConfigurableEnvironment configurableEnvironment = context.getEnvironment();
+        final ConfigurableEnvironment configurableEnvironment = loadConfigurableEnvironment();
         final String wiremockServerPortAsString = configurableEnvironment.getProperty(getWiremockServerPortPropertyName());
         final Optional<String> wiremockServerPortAsStringOptional = Optional.ofNullable(wiremockServerPortAsString);
         final String wiremockServerPortDefault = String.valueOf(Options.DEFAULT_PORT);
@@ -46,4 +41,24 @@ public abstract class WireMockStarter implements WireMockCreaterLoader {
 
         return WireMockCreater.of(wireMockProperties);
     }
+
+    /**
+     * Configuration classes registered instead of scanning the starter's package for
+     * components. The default is empty, which keeps the package scan.
+     */
+    protected Class<?>[] getConfigurationClasses() {
+        return new Class<?>[0];
+    }
+
+    protected ConfigurableEnvironment loadConfigurableEnvironment() {
+        final WireMockEnvironmentLoader environmentLoader = WireMockEnvironmentLoader.shared();
+        final Class<?>[] configurationClasses = getConfigurationClasses();
+
+        if (configurationClasses.length > 0) {
+            return environmentLoader.loadForConfigurations(configurationClasses);
+        }
+
+        final String packageName = this.getClass().getPackage().getName();
+        return environmentLoader.loadForPackage(packageName);
+    }
 }
@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.stubbing;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.ehrlichandreas.wiremock.matching.RegexPatterns;
+import com.github.tomakehurst.wiremock.stubbing.SortedConcurrentMappingSet;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.google.common.collect.Iterators;
+
+/**
+ * Mapping set kept as an immutable sorted array that is replaced as a whole on every change.
+ * Matching iterates a plain array without locking, and the current state can be taken as a
+ * {@link StubMappingsSnapshot} and put back in constant time. Changes copy the array, which
+ * is cheap next to matching, since every served request walks the set while stubs are only
+ * changed from the admin side. Order and removal rules are those of the set it replaces.
+ * The regexes of stubs entering the set are swapped for shared ones, see
+ * {@link RegexPatterns}.
+ */
+public class CopyOnWriteMappingSet extends SortedConcurrentMappingSet {
+
+    private static final Comparator<StubMapping> SORTED_BY_PRIORITY_THEN_REVERSE_INSERTION_ORDER = new Comparator<StubMapping>() {
+        @Override
+        public int compare(StubMapping one, StubMapping two) {
+            final int priorityComparison = one.comparePriorityWith(two);
+
+            if (priorityComparison != 0) {
+                return priorityComparison;
+            }
+
+            return Long.compare(two.getInsertionIndex(), one.getInsertionIndex());
+        }
+    };
+
+    private final AtomicLong insertionCount = new AtomicLong();
+    private volatile StubMappingsSnapshot contents = StubMappingsSnapshot.EMPTY;
+
+    /**
+     * Takes over the mappings of the given set, keeping their insertion indexes.
+     */
+    public CopyOnWriteMappingSet(Iterable<StubMapping> mappings) {
+        for (StubMapping mapping : mappings) {
+            insertionCount.set(Math.max(insertionCount.get(), mapping.getInsertionIndex() + 1));
+            RegexPatterns.share(mapping.getRequest());
+            contents = inserted(contents, mapping);
+        }
+    }
+
+    @Override
+    public Iterator<StubMapping> iterator() {
+        return Iterators.forArray(contents.mappings);
+    }
+
+    @Override
+    public synchronized void add(StubMapping mapping) {
+        mapping.setInsertionIndex(insertionCount.getAndIncrement());
+        RegexPatterns.share(mapping.getRequest());
+        contents = inserted(contents, mapping);
+    }
+
+    @Override
+    public synchronized boolean remove(StubMapping mappingToRemove) {
+        final StubMappingsSnapshot current = contents;
+        StubMappingsSnapshot removed = removedWhere(current, mappingToRemove, true);
+
+        if (removed == current) {
+            removed = removedWhere(current, mappingToRemove, false);
+        }
+
+        contents = removed;
+        return removed != current;
+    }
+
+    @Override
+    public synchronized boolean replace(StubMapping existingMapping, StubMapping newMapping) {
+        final StubMappingsSnapshot current = contents;
+        final int index = indexOf(current.mappings, existingMapping);
+
+        if (index < 0) {
+            return false;
+        }
+
+        RegexPatterns.share(newMapping.getRequest());
+        contents = inserted(without(current, index), newMapping);
+        return true;
+    }
+
+    @Override
+    public synchronized void clear() {
+        contents = StubMappingsSnapshot.EMPTY;
+    }
+
+    /**
+     * Orders a mapping kept outside of the set, such as a proxy route, among the set's mappings
+     * as if it had been added now.
+     */
+    public void assignInsertionIndex(StubMapping mapping) {
+        mapping.setInsertionIndex(insertionCount.getAndIncrement());
+    }
+
+    /**
+     * Whether the first mapping is matched ahead of the second, that is by priority and then
+     * newest first.
+     */
+    public static boolean isAheadOf(StubMapping one, StubMapping two) {
+        return SORTED_BY_PRIORITY_THEN_REVERSE_INSERTION_ORDER.compare(one, two) < 0;
+    }
+
+    public StubMappingsSnapshot snapshot() {
+        return contents;
+    }
+
+    public synchronized void restore(StubMappingsSnapshot snapshot) {
+        contents = snapshot;
+    }
+
+    public StubMapping[] scenarioMappings() {
+        return contents.scenarioMappings.clone();
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(contents.mappings);
+    }
+
+    private static StubMappingsSnapshot inserted(StubMappingsSnapshot snapshot, StubMapping mapping) {
+        return new StubMappingsSnapshot(
+                inserted(snapshot.mappings, mapping),
+                mapping.isInScenario() ? inserted(snapshot.scenarioMappings, mapping) : snapshot.scenarioMappings
+        );
+    }
+
+    private static StubMapping[] inserted(StubMapping[] mappings, StubMapping mapping) {
+        final int searched = Arrays.binarySearch(mappings, mapping, SORTED_BY_PRIORITY_THEN_REVERSE_INSERTION_ORDER);
+        final int index = searched < 0 ? -(searched + 1) : searched;
+        final StubMapping[] result = new StubMapping[mappings.length + 1];
+        System.arraycopy(mappings, 0, result, 0, index);
+        result[index] = mapping;
+        System.arraycopy(mappings, index, result, index + 1, mappings.length - index);
+        return result;
+    }
+
+    private static StubMappingsSnapshot without(StubMappingsSnapshot snapshot, int index) {
+        final StubMapping mapping = snapshot.mappings[index];
+        final int scenarioIndex = mapping.isInScenario() ? indexOf(snapshot.scenarioMappings, mapping) : -1;
+        return new StubMappingsSnapshot(
+                without(snapshot.mappings, index),
+                scenarioIndex < 0 ? snapshot.scenarioMappings : without(snapshot.scenarioMappings, scenarioIndex)
+        );
+    }
+
+    private static StubMapping[] without(StubMapping[] mappings, int index) {
+        final StubMapping[] result = new StubMapping[mappings.length - 1];
+        System.arraycopy(mappings, 0, result, 0, index);
+        System.arraycopy(mappings, index + 1, result, index, mappings.length - index - 1);
+        return result;
+    }
+
+    private static StubMappingsSnapshot removedWhere(StubMappingsSnapshot snapshot, StubMapping mappingToRemove, boolean byUuid) {
+        StubMappingsSnapshot result = snapshot;
+
+        for (int i = snapshot.mappings.length - 1; i >= 0; i--) {
+            final StubMapping mapping = snapshot.mappings[i];
+            final boolean matches = byUuid
+                    ? mappingToRemove.getUuid() != null && mapping.getUuid() != null && mappingToRemove.getUuid().equals(mapping.getUuid())
+                    : mapping.getRequest().equals(mappingToRemove.getRequest());
+
+            if (matches) {
+                result = without(result, i);
+            }
+        }
+
+        return result;
+    }
+
+    private static int indexOf(StubMapping[] mappings, StubMapping mapping) {
+        for (int i = 0; i < mappings.length; i++) {
+            if (mappings[i] == mapping) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2019 Andreas Ehrlich
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ehrlichandreas.wiremock.stubbing;
+
+import java.util.List;
+
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Immutable state of a {@link CopyOnWriteMappingSet}: its stubs in matching order, and those
+ * of them taking part in a scenario. Taking and restoring one only passes references, the
+ * arrays are never written once published.
+ */
+public final class StubMappingsSnapshot {
+
+    static final StubMappingsSnapshot EMPTY = new StubMappingsSnapshot(new StubMapping[0], new StubMapping[0]);
+
+    final StubMapping[] mappings;
+    final StubMapping[] scenarioMappings;
+
+    StubMappingsSnapshot(StubMapping[] mappings, StubMapping[] scenarioMappings) {
+        this.mappings = mappings;
+        this.scenarioMappings = scenarioMappings;
+    }
+
+    public int size() {
+        return mappings.length;
+    }
+
+    public List<StubMapping> getMappings() {
+        return ImmutableList.copyOf(mappings);
+    }
+}